@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.example.chaos.monkey.benchmarks;
+
+/** States of Chaos Monkey every watcher is measured in. */
+public enum ChaosMode {
+
+  /** Chaos Monkey is disabled, watchers only check the enabled flag. */
+  DISABLED,
+
+  /**
+   * Chaos Monkey and all watchers are enabled, but the level is set to its maximum of 10000, so
+   * nearly no call makes it past the trouble check.
+   */
+  ENABLED,
+
+  /** Every call is attacked with an assault that does nothing. */
+  TRIGGERED
+}
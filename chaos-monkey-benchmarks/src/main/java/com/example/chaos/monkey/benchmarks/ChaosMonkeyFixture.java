@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.example.chaos.monkey.benchmarks;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.component.MicrometerChaosMetricsSink;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggleNameMapper;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import lombok.Getter;
+
+/**
+ * Wires the Chaos Monkey components the watchers depend on the same way the auto configuration
+ * does, without starting an application context.
+ */
+@Getter
+class ChaosMonkeyFixture {
+
+  private final ChaosMonkeySettings settings;
+
+  private final MetricEventPublisher metricEventPublisher;
+
+  private final ChaosMonkeyRequestScope requestScope;
+
+  ChaosMonkeyFixture(ChaosMode mode) {
+    ChaosMonkeyProperties chaosMonkeyProperties = new ChaosMonkeyProperties();
+    chaosMonkeyProperties.setEnabled(mode != ChaosMode.DISABLED);
+
+    AssaultProperties assaultProperties = new AssaultProperties();
+    assaultProperties.setLevel(mode == ChaosMode.TRIGGERED ? 1 : 10000);
+
+    WatcherProperties watcherProperties = new WatcherProperties();
+    watcherProperties.setService(true);
+    watcherProperties.setRepository(true);
+    watcherProperties.setRestController(true);
+    watcherProperties.setRestTemplate(true);
+    watcherProperties.setWebClient(true);
+
+    this.settings =
+        new ChaosMonkeySettings(chaosMonkeyProperties, assaultProperties, watcherProperties);
+    this.metricEventPublisher =
+        new MetricEventPublisher(new MicrometerChaosMetricsSink(new SimpleMeterRegistry()));
+    this.requestScope =
+        new ChaosMonkeyRequestScope(
+            settings,
+            Collections.singletonList(new NoOpAssault()),
+            Collections.emptyList(),
+            metricEventPublisher,
+            new DefaultChaosToggles(),
+            new DefaultChaosToggleNameMapper("chaos.monkey"));
+    this.requestScope.reloadConfig();
+  }
+
+  /** Always active and does nothing, so only the cost of getting to the attack is measured. */
+  static class NoOpAssault implements ChaosMonkeyRequestAssault {
+
+    @Override
+    public boolean isActive() {
+      return true;
+    }
+
+    @Override
+    public void attack() {}
+  }
+}
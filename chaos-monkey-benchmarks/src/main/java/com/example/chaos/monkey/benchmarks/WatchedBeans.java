@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.example.chaos.monkey.benchmarks;
+
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Beans for the method watchers. They are outside of the Chaos Monkey package on purpose, the
+ * watchers skip everything in {@code de.codecentric.spring.boot.chaos.monkey}. The enclosing class
+ * must not be final either, {@code within(is(FinalType))} also matches nested types.
+ */
+class WatchedBeans {
+
+  private WatchedBeans() {}
+
+  @Service
+  public static class HelloService {
+
+    public String sayHello() {
+      return "Hello";
+    }
+  }
+
+  @org.springframework.stereotype.Repository
+  public static class HelloRepository {
+
+    public String findHello() {
+      return "Hello";
+    }
+  }
+
+  @RestController
+  public static class HelloRestController {
+
+    public String hello() {
+      return "Hello";
+    }
+  }
+
+  public interface HelloJpaRepository extends Repository<String, Long> {
+
+    String findHello();
+  }
+
+  public static class HelloJpaRepositoryImpl implements HelloJpaRepository {
+
+    @Override
+    public String findHello() {
+      return "Hello";
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.example.chaos.monkey.benchmarks;
+
+import com.example.chaos.monkey.benchmarks.WatchedBeans.HelloJpaRepository;
+import com.example.chaos.monkey.benchmarks.WatchedBeans.HelloJpaRepositoryImpl;
+import com.example.chaos.monkey.benchmarks.WatchedBeans.HelloRepository;
+import com.example.chaos.monkey.benchmarks.WatchedBeans.HelloRestController;
+import com.example.chaos.monkey.benchmarks.WatchedBeans.HelloService;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringRepositoryAspectJDBC;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringRepositoryAspectJPA;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringRestControllerAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringServiceAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.outgoing.ChaosMonkeyRestTemplateWatcher;
+import de.codecentric.spring.boot.chaos.monkey.watcher.outgoing.ChaosMonkeyWebClientWatcher;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Overhead of every watcher for each {@link ChaosMode}. The {@code baseline} benchmark calls the
+ * service without any proxy, the difference to the watcher benchmarks is what Chaos Monkey costs
+ * per intercepted call (including the Spring AOP proxy itself).
+ *
+ * <p>Run with {@code java -jar chaos-monkey-benchmarks/target/benchmarks.jar -prof gc} to get the
+ * allocated bytes per operation ({@code gc.alloc.rate.norm}) next to the time per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WatcherBenchmark {
+
+  private static final byte[] EMPTY_BODY = new byte[0];
+
+  @Param({"DISABLED", "ENABLED", "TRIGGERED"})
+  public ChaosMode mode;
+
+  private HelloService plainService;
+
+  private HelloService service;
+
+  private HelloRepository repository;
+
+  private HelloRestController restController;
+
+  private HelloJpaRepository jpaRepository;
+
+  private ChaosMonkeyRestTemplateWatcher restTemplateWatcher;
+
+  private HttpRequest httpRequest;
+
+  private ClientHttpRequestExecution execution;
+
+  private ChaosMonkeyWebClientWatcher webClientWatcher;
+
+  private ClientRequest clientRequest;
+
+  private ExchangeFunction exchangeFunction;
+
+  @Setup
+  public void setUp() {
+    ChaosMonkeyFixture fixture = new ChaosMonkeyFixture(mode);
+
+    plainService = new HelloService();
+    service =
+        proxy(
+            new HelloService(),
+            new SpringServiceAspect(
+                fixture.getRequestScope(),
+                fixture.getMetricEventPublisher(),
+                fixture.getSettings().getWatcherProperties()));
+    repository =
+        proxy(
+            new HelloRepository(),
+            new SpringRepositoryAspectJDBC(
+                fixture.getRequestScope(),
+                fixture.getMetricEventPublisher(),
+                fixture.getSettings().getWatcherProperties()));
+    restController =
+        proxy(
+            new HelloRestController(),
+            new SpringRestControllerAspect(
+                fixture.getRequestScope(),
+                fixture.getMetricEventPublisher(),
+                fixture.getSettings().getWatcherProperties()));
+    jpaRepository =
+        proxy(
+            new HelloJpaRepositoryImpl(),
+            new SpringRepositoryAspectJPA(
+                fixture.getRequestScope(),
+                fixture.getMetricEventPublisher(),
+                fixture.getSettings().getWatcherProperties()));
+
+    restTemplateWatcher =
+        new ChaosMonkeyRestTemplateWatcher(
+            fixture.getRequestScope(), fixture.getSettings().getWatcherProperties());
+    httpRequest = new FixedHttpRequest(URI.create("http://localhost:8080/hello"));
+    ClientHttpResponse okResponse = new OkResponse();
+    execution = (request, body) -> okResponse;
+
+    webClientWatcher =
+        new ChaosMonkeyWebClientWatcher(
+            fixture.getRequestScope(), fixture.getSettings().getWatcherProperties());
+    clientRequest =
+        ClientRequest.create(HttpMethod.GET, URI.create("http://localhost:8080/hello")).build();
+    Mono<ClientResponse> clientResponse = Mono.just(ClientResponse.create(HttpStatus.OK).build());
+    exchangeFunction = request -> clientResponse;
+  }
+
+  @Benchmark
+  public String baseline() {
+    return plainService.sayHello();
+  }
+
+  @Benchmark
+  public String service() {
+    return service.sayHello();
+  }
+
+  @Benchmark
+  public String repository() {
+    return repository.findHello();
+  }
+
+  @Benchmark
+  public String restController() {
+    return restController.hello();
+  }
+
+  @Benchmark
+  public String jpaRepository() {
+    return jpaRepository.findHello();
+  }
+
+  @Benchmark
+  public ClientHttpResponse restTemplate() throws IOException {
+    return restTemplateWatcher.intercept(httpRequest, EMPTY_BODY, execution);
+  }
+
+  @Benchmark
+  public ClientResponse webClient() {
+    return webClientWatcher.filter(clientRequest, exchangeFunction).block();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(T target, Object aspect) {
+    AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+    proxyFactory.addAspect(aspect);
+    return (T) proxyFactory.getProxy();
+  }
+
+  private static class FixedHttpRequest implements HttpRequest {
+
+    private final URI uri;
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private FixedHttpRequest(URI uri) {
+      this.uri = uri;
+    }
+
+    @Override
+    public String getMethodValue() {
+      return HttpMethod.GET.name();
+    }
+
+    @Override
+    public URI getURI() {
+      return uri;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+
+  private static class OkResponse extends AbstractClientHttpResponse {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    @Override
+    public int getRawStatusCode() {
+      return HttpStatus.OK.value();
+    }
+
+    @Override
+    public String getStatusText() {
+      return HttpStatus.OK.getReasonPhrase();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(EMPTY_BODY);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
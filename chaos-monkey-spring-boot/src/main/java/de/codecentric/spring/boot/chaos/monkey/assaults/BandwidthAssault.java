@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the bandwidth of the response bodies of outgoing requests, like a slow peer does. Only the
+ * RestTemplate and WebClient watchers throttle the body, so the assault is only chosen for their
+ * calls.
+ */
+public class BandwidthAssault implements ChaosMonkeyRequestAssault {
+
+  private static final Logger Logger = LoggerFactory.getLogger(BandwidthAssault.class);
+
+  private final ChaosMonkeySettings settings;
+
+  private final MetricEventPublisher metricEventPublisher;
+
+  private volatile ChaosMonkeySnapshot snapshot;
+
+  public BandwidthAssault(ChaosMonkeySettings settings, MetricEventPublisher metricEventPublisher) {
+    this.settings = settings;
+    this.metricEventPublisher = metricEventPublisher;
+  }
+
+  @Override
+  public boolean isActive() {
+    return settings.getAssaultProperties().isBandwidthActive();
+  }
+
+  @Override
+  public boolean appliesTo(ChaosTarget type) {
+    return type != null && type.isOutgoing();
+  }
+
+  @Override
+  public void reloadConfig(ChaosMonkeySnapshot snapshot) {
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public void attack() {
+    Logger.debug("Chaos Monkey - bandwidth, only applies to response bodies of outgoing requests");
+  }
+
+  /**
+   * Records an attack of a response body.
+   *
+   * @return the bucket limiting the body of a single response
+   */
+  public TokenBucket prepareAttack() {
+    Logger.debug("Chaos Monkey - bandwidth");
+
+    if (metricEventPublisher != null) {
+      metricEventPublisher.publishMetricEvent(MetricType.BANDWIDTH_ASSAULT);
+    }
+
+    final ChaosMonkeySnapshot config = snapshot;
+    return new TokenBucket(
+        config != null
+            ? config.getBandwidthBytesPerSecond()
+            : settings.getAssaultProperties().getBandwidthBytesPerSecond());
+  }
+}
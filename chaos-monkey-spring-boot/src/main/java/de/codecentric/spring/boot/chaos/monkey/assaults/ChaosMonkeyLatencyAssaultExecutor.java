@@ -3,4 +3,10 @@ package de.codecentric.spring.boot.chaos.monkey.assaults;
 public interface ChaosMonkeyLatencyAssaultExecutor {
 
   void execute(long duration);
+
+  /**
+   * Ends all latencies that are currently executed, e.g. because Chaos Monkey was disabled or the
+   * latency was changed. Latencies started afterwards are not affected.
+   */
+  default void cancel() {}
 }
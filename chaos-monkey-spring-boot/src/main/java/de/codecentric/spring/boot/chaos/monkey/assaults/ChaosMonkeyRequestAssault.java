@@ -1,3 +1,37 @@
 package de.codecentric.spring.boot.chaos.monkey.assaults;
 
-public interface ChaosMonkeyRequestAssault extends ChaosMonkeyAssault {}
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+
+public interface ChaosMonkeyRequestAssault extends ChaosMonkeyAssault {
+
+  /**
+   * Called with every new configuration snapshot before it is used for attacks. Assaults can keep
+   * the values they need from it instead of reading the mutable properties on each attack.
+   *
+   * @param snapshot the configuration that is about to be published
+   */
+  default void reloadConfig(ChaosMonkeySnapshot snapshot) {}
+
+  /**
+   * Assaults that only some watchers can run, like the ones attacking outgoing requests, are only
+   * chosen for the calls of these watchers.
+   *
+   * @param type watched target, may be null
+   * @return whether the assault can attack calls of the given target
+   */
+  default boolean appliesTo(ChaosTarget type) {
+    return true;
+  }
+
+  /**
+   * Attacks a watched call. Assaults that behave differently per watched call, like the latency
+   * assault with a queue, use the target and the name of the call.
+   *
+   * @param type watched target, may be null
+   * @param simpleName signature or url of the watched call, may be null
+   */
+  default void attack(ChaosTarget type, String simpleName) {
+    attack();
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the calling thread busy hashing a buffer for the latency, so an attacked call uses a core
+ * like slow, compute-bound code does instead of leaving it idle. The latency is measured in CPU
+ * time of the calling thread if the JVM supports it, so a thread that has to wait for a core takes
+ * longer, just like real work would. Without CPU time measurement, and as an upper bound of twice
+ * the latency when cores are overbooked, wall clock time is used.
+ *
+ * <p>Busy threads stop early on {@link #cancel()} and on interrupts, an interrupt is kept for the
+ * caller.
+ */
+public class CpuBurningLatencyAssaultExecutor implements ChaosMonkeyLatencyAssaultExecutor {
+
+  private static final int CHUNK_SIZE = 4096;
+
+  static final int MAX_WALL_CLOCK_FACTOR = 2;
+
+  // keeps the JIT from removing the hashing as dead code
+  private static volatile byte sink;
+
+  private final ThreadMXBean threadMXBean;
+
+  private final boolean cpuTimeSupported;
+
+  // incremented by cancel(), a latency ends as soon as the epoch it was started in is over
+  private final AtomicLong epoch = new AtomicLong();
+
+  public CpuBurningLatencyAssaultExecutor() {
+    this(ManagementFactory.getThreadMXBean());
+  }
+
+  CpuBurningLatencyAssaultExecutor(ThreadMXBean threadMXBean) {
+    this.threadMXBean = threadMXBean;
+    this.cpuTimeSupported =
+        threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+  }
+
+  @Override
+  public void execute(long durationInMillis) {
+    long startEpoch = epoch.get();
+    long duration = TimeUnit.MILLISECONDS.toNanos(durationInMillis);
+    long wallClockStart = System.nanoTime();
+    long cpuTimeStart = cpuTime();
+    long wallClockLimit = cpuTimeStart < 0 ? duration : duration * MAX_WALL_CLOCK_FACTOR;
+    MessageDigest digest = sha256();
+    byte[] buffer = new byte[CHUNK_SIZE];
+    Thread thread = Thread.currentThread();
+    while (epoch.get() == startEpoch && !thread.isInterrupted()) {
+      digest.update(buffer);
+      byte[] hash = digest.digest();
+      // feed the hash back, so every chunk depends on the one before
+      System.arraycopy(hash, 0, buffer, 0, hash.length);
+      sink = hash[0];
+      long wallClock = System.nanoTime() - wallClockStart;
+      if (wallClock >= wallClockLimit
+          || (cpuTimeStart >= 0 && cpuTime() - cpuTimeStart >= duration)) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void cancel() {
+    epoch.incrementAndGet();
+  }
+
+  /** @return whether the latency is measured in CPU time instead of wall clock time */
+  public boolean isCpuTimeSupported() {
+    return cpuTimeSupported;
+  }
+
+  private long cpuTime() {
+    return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1;
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform has to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
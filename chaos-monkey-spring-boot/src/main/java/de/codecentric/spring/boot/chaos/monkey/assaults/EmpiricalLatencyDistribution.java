@@ -0,0 +1,177 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Replays recorded latencies. The recording is split into buckets between neighbouring percentiles,
+ * a bucket is chosen with an alias table and the latency is drawn uniformly within it, so sampling
+ * takes constant time regardless of the number of buckets.
+ *
+ * <p>Two formats are read, lines starting with {@code #} and lines that don't start with a number
+ * are skipped:
+ *
+ * <ul>
+ *   <li>a percentile table, one {@code percentile,latency} pair per line, percentiles from 0 to
+ *       100, e.g. {@code 99.9,850}. Without a row for percentile 0 the latencies below the first
+ *       percentile start at 0
+ *   <li>the percentile distribution written by HdrHistogram's {@code outputPercentileDistribution},
+ *       with the value in the first and the percentile from 0 to 1 in the second column
+ * </ul>
+ *
+ * Latencies are in milliseconds.
+ */
+final class EmpiricalLatencyDistribution implements LatencyDistribution {
+
+  private final double[] lower;
+
+  private final double[] upper;
+
+  private final double[] probability;
+
+  private final int[] alias;
+
+  private EmpiricalLatencyDistribution(
+      double[] lower, double[] upper, double[] probability, int[] alias) {
+    this.lower = lower;
+    this.upper = upper;
+    this.probability = probability;
+    this.alias = alias;
+  }
+
+  @Override
+  public int sample(Random random) {
+    int bucket = random.nextInt(probability.length);
+    if (random.nextDouble() >= probability[bucket]) {
+      bucket = alias[bucket];
+    }
+    double latency = lower[bucket] + random.nextDouble() * (upper[bucket] - lower[bucket]);
+    return (int) Math.round(latency);
+  }
+
+  static EmpiricalLatencyDistribution read(Reader reader) throws IOException {
+    // fraction of the recorded calls, 0 to 1, to the highest latency at that fraction
+    TreeMap<Double, Double> percentiles = new TreeMap<>();
+    BufferedReader lines = new BufferedReader(reader);
+    String line;
+    while ((line = lines.readLine()) != null) {
+      String[] columns = line.trim().split("[,;\\s]+");
+      if (columns.length < 2 || !isNumber(columns[0]) || !isNumber(columns[1])) {
+        continue;
+      }
+      if (columns.length == 2) {
+        percentiles.merge(
+            Double.parseDouble(columns[0]) / 100, Double.parseDouble(columns[1]), Math::max);
+      } else {
+        percentiles.merge(
+            Double.parseDouble(columns[1]), Double.parseDouble(columns[0]), Math::max);
+      }
+    }
+    if (percentiles.isEmpty()) {
+      throw new IllegalArgumentException("Latency histogram contains no percentiles");
+    }
+    if (percentiles.firstKey() < 0 || percentiles.lastKey() > 1) {
+      throw new IllegalArgumentException("Latency histogram contains invalid percentiles");
+    }
+    return fromPercentiles(percentiles);
+  }
+
+  private static EmpiricalLatencyDistribution fromPercentiles(TreeMap<Double, Double> percentiles) {
+    List<double[]> buckets = new ArrayList<>();
+    double previousFraction = 0;
+    // the first bucket starts at 0, or at the recorded minimum if there is a row for percentile 0
+    double previousLatency = 0;
+    for (Map.Entry<Double, Double> percentile : percentiles.entrySet()) {
+      // latencies never decrease with the percentile, even if the recording is rounded
+      double latency = Math.max(previousLatency, percentile.getValue());
+      double weight = percentile.getKey() - previousFraction;
+      if (weight > 0) {
+        buckets.add(new double[] {previousLatency, latency, weight});
+      }
+      previousFraction = percentile.getKey();
+      previousLatency = latency;
+    }
+    if (previousFraction < 1) {
+      buckets.add(new double[] {previousLatency, previousLatency, 1 - previousFraction});
+    }
+
+    int size = buckets.size();
+    double[] lower = new double[size];
+    double[] upper = new double[size];
+    double[] weights = new double[size];
+    for (int i = 0; i < size; i++) {
+      lower[i] = buckets.get(i)[0];
+      upper[i] = buckets.get(i)[1];
+      weights[i] = buckets.get(i)[2];
+    }
+    double[] probability = new double[size];
+    int[] alias = new int[size];
+    buildAliasTable(weights, probability, alias);
+    return new EmpiricalLatencyDistribution(lower, upper, probability, alias);
+  }
+
+  /** Vose's alias method, see https://www.keithschwarz.com/darts-dice-coins/ */
+  private static void buildAliasTable(double[] weights, double[] probability, int[] alias) {
+    int size = weights.length;
+    double total = 0;
+    for (double weight : weights) {
+      total += weight;
+    }
+    double[] scaled = new double[size];
+    Deque<Integer> small = new ArrayDeque<>();
+    Deque<Integer> large = new ArrayDeque<>();
+    for (int i = 0; i < size; i++) {
+      scaled[i] = weights[i] * size / total;
+      (scaled[i] < 1 ? small : large).push(i);
+    }
+    while (!small.isEmpty() && !large.isEmpty()) {
+      int less = small.pop();
+      int more = large.pop();
+      probability[less] = scaled[less];
+      alias[less] = more;
+      scaled[more] = scaled[more] + scaled[less] - 1;
+      (scaled[more] < 1 ? small : large).push(more);
+    }
+    // what is left is 1 except for rounding errors
+    while (!large.isEmpty()) {
+      probability[large.pop()] = 1;
+    }
+    while (!small.isEmpty()) {
+      probability[small.pop()] = 1;
+    }
+  }
+
+  private static boolean isNumber(String column) {
+    try {
+      Double.parseDouble(column);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+}
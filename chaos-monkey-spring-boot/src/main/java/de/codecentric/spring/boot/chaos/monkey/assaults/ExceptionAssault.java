@@ -16,6 +16,7 @@
 
 package de.codecentric.spring.boot.chaos.monkey.assaults;
 
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
 import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultException;
@@ -32,6 +33,9 @@ public class ExceptionAssault implements ChaosMonkeyRequestAssault {
 
   private MetricEventPublisher metricEventPublisher;
 
+  // exception factory of the last published config
+  private volatile ChaosMonkeySnapshot snapshot;
+
   public ExceptionAssault(ChaosMonkeySettings settings, MetricEventPublisher metricEventPublisher) {
     this.settings = settings;
     this.metricEventPublisher = metricEventPublisher;
@@ -42,17 +46,26 @@ public class ExceptionAssault implements ChaosMonkeyRequestAssault {
     return settings.getAssaultProperties().isExceptionsActive();
   }
 
+  @Override
+  public void reloadConfig(ChaosMonkeySnapshot snapshot) {
+    this.snapshot = snapshot;
+  }
+
   @Override
   public void attack() {
     Logger.info("Chaos Monkey - exception");
 
-    AssaultException assaultException = this.settings.getAssaultProperties().getException();
-
     // metrics
     if (metricEventPublisher != null) {
       metricEventPublisher.publishMetricEvent(MetricType.EXCEPTION_ASSAULT);
     }
 
-    assaultException.throwExceptionInstance();
+    final ChaosMonkeySnapshot config = snapshot;
+    if (config != null) {
+      config.getExceptionFactory().throwException();
+    } else {
+      AssaultException assaultException = this.settings.getAssaultProperties().getException();
+      assaultException.throwExceptionInstance();
+    }
   }
 }
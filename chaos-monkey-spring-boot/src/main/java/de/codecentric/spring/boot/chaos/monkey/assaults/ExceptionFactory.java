@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the exceptions of the exception assault. The configured class and constructor are
+ * resolved once, creating an exception afterwards only invokes a bound {@link MethodHandle}.
+ *
+ * <p>With {@code stackless} a single instance without stack trace is created up front and thrown on
+ * every attack, so no stack trace is captured while attacking. Its cause is fixed, so callers can't
+ * attach one with {@link Throwable#initCause}. Once a caller added a suppressed exception to it,
+ * e.g. in a try-with-resources block, it is replaced by a new instance, so suppressed exceptions
+ * don't pile up on the shared one.
+ */
+public final class ExceptionFactory {
+
+  private static final Logger Logger = LoggerFactory.getLogger(ExceptionFactory.class);
+
+  private static final MethodType CREATE_TYPE = MethodType.methodType(Exception.class);
+
+  private static final String FALLBACK_MESSAGE = "Chaos Monkey - RuntimeException";
+
+  private final Class<? extends Exception> exceptionClass;
+
+  private final MethodHandle constructor;
+
+  private volatile Exception preallocated;
+
+  private ExceptionFactory(
+      Class<? extends Exception> exceptionClass, MethodHandle constructor, boolean stackless) {
+    this.exceptionClass = exceptionClass;
+    this.constructor = constructor;
+    this.preallocated = stackless ? preallocate(newInstance()) : null;
+  }
+
+  /**
+   * Resolves the configured exception. If it can't be created, a {@link RuntimeException} is
+   * created instead, like {@link AssaultException#throwExceptionInstance()} does.
+   */
+  public static ExceptionFactory of(AssaultException assaultException) {
+    String type = assaultException.getType();
+    try {
+      Class<? extends Exception> exceptionClass = assaultException.getExceptionClass();
+      type = exceptionClass.getName();
+      MethodHandle constructor;
+      if (assaultException.getArguments() == null) {
+        constructor =
+            MethodHandles.publicLookup()
+                .findConstructor(exceptionClass, MethodType.methodType(void.class));
+      } else {
+        List<Class> argumentTypes = assaultException.getExceptionArgumentTypes();
+        constructor =
+            MethodHandles.insertArguments(
+                MethodHandles.publicLookup()
+                    .findConstructor(
+                        exceptionClass,
+                        MethodType.methodType(void.class, argumentTypes.toArray(new Class[0]))),
+                0,
+                assaultException.getExceptionArgumentValues().toArray());
+      }
+      return new ExceptionFactory(
+          exceptionClass, constructor.asType(CREATE_TYPE), assaultException.isStackless());
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      Logger.warn(
+          "Cannot instantiate the class for provided type: {}. Fallback: Throw RuntimeException",
+          type);
+      return new ExceptionFactory(RuntimeException.class, null, assaultException.isStackless());
+    }
+  }
+
+  /** @return the preallocated exception, or a new instance of the configured exception */
+  public Exception create() {
+    Exception exception = preallocated;
+    if (exception == null) {
+      return newInstance();
+    }
+    if (exception.getSuppressed().length > 0) {
+      exception = preallocate(newInstance());
+      preallocated = exception;
+    }
+    return exception;
+  }
+
+  /** Throws {@link #create()}, checked exceptions included. */
+  @SneakyThrows
+  public void throwException() {
+    throw create();
+  }
+
+  /**
+   * @return the configured exception class, {@link RuntimeException} if it could not be resolved
+   */
+  public Class<? extends Exception> getExceptionClass() {
+    return exceptionClass;
+  }
+
+  /** @return whether the exception is of the configured class or the fallback one */
+  public boolean isAssaultException(Throwable exception) {
+    return exception.getClass().equals(exceptionClass)
+        || exception.getClass().equals(RuntimeException.class)
+            && FALLBACK_MESSAGE.equals(exception.getMessage());
+  }
+
+  private Exception newInstance() {
+    if (constructor == null) {
+      return new RuntimeException(FALLBACK_MESSAGE);
+    }
+    try {
+      return (Exception) constructor.invokeExact();
+    } catch (Throwable e) {
+      Logger.warn(
+          "Cannot instantiate the class for provided type: {}. Fallback: Throw RuntimeException",
+          exceptionClass,
+          e);
+      return new RuntimeException(FALLBACK_MESSAGE);
+    }
+  }
+
+  private static Exception preallocate(Exception exception) {
+    exception.setStackTrace(new StackTraceElement[0]);
+    if (exception.getCause() == null) {
+      try {
+        exception.initCause(null);
+      } catch (IllegalStateException e) {
+        // the constructor already set the cause to null
+      }
+    }
+    return exception;
+  }
+}
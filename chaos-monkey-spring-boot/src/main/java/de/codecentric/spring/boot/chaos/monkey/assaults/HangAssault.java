@@ -0,0 +1,156 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lets outgoing requests hang after the connection was established, like a peer that stops
+ * answering. The RestTemplate and WebClient watchers hold the response, and with it the pooled
+ * connection, until the hang is over and then fail the request with a read timeout. The assault is
+ * only chosen for the calls of these watchers.
+ *
+ * <p>A hang is a pending future completed by a shared timer thread, so waiting WebClient requests
+ * don't occupy any thread. All pending hangs end when the assault is deactivated or Chaos Monkey is
+ * disabled.
+ */
+public class HangAssault implements ChaosMonkeyRequestAssault {
+
+  private static final Logger Logger = LoggerFactory.getLogger(HangAssault.class);
+
+  private final ChaosMonkeySettings settings;
+
+  private final MetricEventPublisher metricEventPublisher;
+
+  private final Set<CompletableFuture<Void>> pendingHangs = ConcurrentHashMap.newKeySet();
+
+  private final AtomicInteger pendingHangCount = new AtomicInteger();
+
+  private volatile ChaosMonkeySnapshot snapshot;
+
+  public HangAssault(ChaosMonkeySettings settings, MetricEventPublisher metricEventPublisher) {
+    this.settings = settings;
+    this.metricEventPublisher = metricEventPublisher;
+  }
+
+  @Override
+  public boolean isActive() {
+    return settings.getAssaultProperties().isHangActive();
+  }
+
+  @Override
+  public boolean appliesTo(ChaosTarget type) {
+    return type != null && type.isOutgoing();
+  }
+
+  @Override
+  public void reloadConfig(ChaosMonkeySnapshot snapshot) {
+    this.snapshot = snapshot;
+    // release the held connections, unrelated changes let the pending hangs run to their end
+    if (!isHanging()) {
+      pendingHangs.forEach(hang -> hang.complete(null));
+    }
+  }
+
+  private boolean isHanging() {
+    return settings.getChaosMonkeyProperties().isEnabled() && isActive();
+  }
+
+  @Override
+  public void attack() {
+    Logger.debug("Chaos Monkey - hang, only applies to outgoing requests");
+  }
+
+  /**
+   * Starts a hang. Cancelling the returned future ends it early.
+   *
+   * @return completes when the hang is over
+   */
+  public CompletableFuture<Void> prepareAttack() {
+    final ChaosMonkeySnapshot config = snapshot;
+    final int timeout =
+        config != null ? config.getHangTimeout() : settings.getAssaultProperties().getHangTimeout();
+    Logger.debug("Chaos Monkey - hang for {} ms", timeout);
+
+    if (metricEventPublisher != null) {
+      metricEventPublisher.publishMetricEvent(MetricType.HANG_ASSAULT);
+    }
+
+    CompletableFuture<Void> hang = new CompletableFuture<>();
+    ScheduledFuture<?> timer =
+        Timer.INSTANCE.schedule(() -> hang.complete(null), timeout, TimeUnit.MILLISECONDS);
+    pendingHangs.add(hang);
+    publishPendingHangs(pendingHangCount.incrementAndGet());
+    hang.whenComplete(
+        (result, error) -> {
+          timer.cancel(false);
+          pendingHangs.remove(hang);
+          publishPendingHangs(pendingHangCount.decrementAndGet());
+        });
+    if (config != snapshot && !isHanging()) {
+      // the assault was switched off while the hang was registered
+      hang.complete(null);
+    }
+    return hang;
+  }
+
+  /** @return the number of outgoing requests that currently hang */
+  public int getPendingHangs() {
+    return pendingHangCount.get();
+  }
+
+  private void publishPendingHangs(int count) {
+    if (metricEventPublisher != null) {
+      metricEventPublisher.publishMetricEvent(MetricType.HANG_ASSAULT_PENDING, count);
+    }
+  }
+
+  // lazy holder, the thread is only started when a request hangs
+  private static final class Timer {
+
+    private static final ScheduledExecutorService INSTANCE = create();
+
+    private static ScheduledExecutorService create() {
+      ScheduledThreadPoolExecutor timer =
+          new ScheduledThreadPoolExecutor(
+              1,
+              runnable -> {
+                Thread thread = new Thread(runnable, "chaos-monkey-hang");
+                thread.setDaemon(true);
+                return thread;
+              });
+      // hangs ended early don't keep their task in the queue until the timeout
+      timer.setRemoveOnCancelPolicy(true);
+      return timer;
+    }
+  }
+}
@@ -16,6 +16,8 @@
 
 package de.codecentric.spring.boot.chaos.monkey.assaults;
 
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
@@ -33,22 +35,43 @@ public class LatencyAssault implements ChaosMonkeyRequestAssault {
 
   private final ChaosMonkeyLatencyAssaultExecutor assaultExecutor;
 
+  private final ChaosMonkeyLatencyAssaultExecutor cpuBurningExecutor;
+
+  private final ScheduledLatencies scheduledLatencies = new ScheduledLatencies();
+
   private MetricEventPublisher metricEventPublisher;
 
   private AtomicInteger atomicTimeoutGauge;
 
+  // latency distribution of the last published config, its settings always belong together
+  private volatile ChaosMonkeySnapshot snapshot;
+
   public LatencyAssault(
       ChaosMonkeySettings settings,
       MetricEventPublisher metricEventPublisher,
       ChaosMonkeyLatencyAssaultExecutor executor) {
+    this(settings, metricEventPublisher, executor, new CpuBurningLatencyAssaultExecutor());
+  }
+
+  /**
+   * @param executor waits for the latency
+   * @param cpuBurningExecutor keeps the thread busy for the latency if {@code latencyBurnCpu} is
+   *     set
+   */
+  public LatencyAssault(
+      ChaosMonkeySettings settings,
+      MetricEventPublisher metricEventPublisher,
+      ChaosMonkeyLatencyAssaultExecutor executor,
+      ChaosMonkeyLatencyAssaultExecutor cpuBurningExecutor) {
     this.settings = settings;
     this.metricEventPublisher = metricEventPublisher;
     this.atomicTimeoutGauge = new AtomicInteger(0);
     this.assaultExecutor = executor;
+    this.cpuBurningExecutor = cpuBurningExecutor;
   }
 
   public LatencyAssault(ChaosMonkeySettings settings, MetricEventPublisher metricEventPublisher) {
-    this(settings, metricEventPublisher, new LatencyAssaultExecutor());
+    this(settings, metricEventPublisher, new LatencyAssaultExecutor(metricEventPublisher));
   }
 
   @Override
@@ -56,11 +79,87 @@ public class LatencyAssault implements ChaosMonkeyRequestAssault {
     return settings.getAssaultProperties().isLatencyActive();
   }
 
+  @Override
+  public void reloadConfig(ChaosMonkeySnapshot snapshot) {
+    ChaosMonkeySnapshot previous = this.snapshot;
+    this.snapshot = snapshot;
+    // don't keep threads waiting for a latency that is no longer configured
+    if (previous != null
+        && (!settings.getChaosMonkeyProperties().isEnabled()
+            || !isActive()
+            || previous.getLatencyRangeStart() != snapshot.getLatencyRangeStart()
+            || previous.getLatencyRangeEnd() != snapshot.getLatencyRangeEnd())) {
+      assaultExecutor.cancel();
+      cpuBurningExecutor.cancel();
+      scheduledLatencies.cancel();
+    }
+  }
+
   @Override
   public void attack() {
+    executor().execute(prepareAttack());
+  }
+
+  @Override
+  public void attack(ChaosTarget type, String simpleName) {
+    executor().execute(prepareAttack(type, simpleName));
+  }
+
+  /**
+   * Waits for a latency determined by {@link #prepareAttack()} on the calling thread, through the
+   * same executor as {@link #attack()}. The wait ends early when Chaos Monkey is disabled or the
+   * latency is changed.
+   *
+   * @param latency latency in milliseconds
+   */
+  public void delay(long latency) {
+    executor().execute(latency);
+  }
+
+  /**
+   * Runs the action after a latency determined by {@link #prepareAttack()}, on a shared timer
+   * thread instead of the calling one. Like {@link #delay(long)}, pending actions run right away
+   * when Chaos Monkey is disabled or the latency is changed.
+   *
+   * @param action short action, e.g. completing a future, long ones delay other latencies
+   * @param latency latency in milliseconds
+   */
+  public void schedule(Runnable action, long latency) {
+    scheduledLatencies.schedule(action, latency);
+  }
+
+  private ChaosMonkeyLatencyAssaultExecutor executor() {
+    final ChaosMonkeySnapshot config = snapshot;
+    boolean burnCpu =
+        config != null
+            ? config.isLatencyBurnCpu()
+            : settings.getAssaultProperties().isLatencyBurnCpu();
+    return burnCpu ? cpuBurningExecutor : assaultExecutor;
+  }
+
+  /**
+   * Determines the latency of an attack and records it, without waiting. Used by watchers that
+   * delay the call themselves instead of blocking the calling thread.
+   *
+   * @return latency in milliseconds
+   */
+  public int prepareAttack() {
+    return prepareAttack(null, null);
+  }
+
+  /**
+   * Like {@link #prepareAttack()}, for a watched call that waits in the latency queue of its target
+   * if one is configured.
+   *
+   * @param type watched target, may be null
+   * @param simpleName signature or url of the watched call, may be null
+   * @return latency in milliseconds
+   */
+  public int prepareAttack(ChaosTarget type, String simpleName) {
     Logger.debug("Chaos Monkey - timeout");
 
-    atomicTimeoutGauge.set(determineLatency());
+    int latency = determineLatency(type, simpleName);
+    atomicTimeoutGauge.set(latency);
 
     // metrics
     if (metricEventPublisher != null) {
@@ -68,10 +167,16 @@ public class LatencyAssault implements ChaosMonkeyRequestAssault {
       metricEventPublisher.publishMetricEvent(MetricType.LATENCY_ASSAULT, atomicTimeoutGauge);
     }
 
-    assaultExecutor.execute(atomicTimeoutGauge.get());
+    return latency;
   }
 
-  private int determineLatency() {
+  private int determineLatency(ChaosTarget type, String simpleName) {
+    final ChaosMonkeySnapshot config = snapshot;
+    if (config != null) {
+      int latency = config.getLatencyDistribution().sample(ThreadLocalRandom.current());
+      LatencyQueue queue = config.getLatencyQueue();
+      return queue == null ? latency : queue.latency(type, simpleName, latency);
+    }
     final int latencyRangeStart = settings.getAssaultProperties().getLatencyRangeStart();
     final int latencyRangeEnd = settings.getAssaultProperties().getLatencyRangeEnd();
 
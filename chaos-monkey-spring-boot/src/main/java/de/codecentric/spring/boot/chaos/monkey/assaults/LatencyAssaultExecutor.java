@@ -1,13 +1,74 @@
 package de.codecentric.spring.boot.chaos.monkey.assaults;
 
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Parks the calling thread for the latency. Parking does not hold a monitor, so virtual threads are
+ * not pinned to their carrier while waiting. Waiting threads are woken up early by {@link
+ * #cancel()} and by interrupts, an interrupt is kept for the caller.
+ */
 public class LatencyAssaultExecutor implements ChaosMonkeyLatencyAssaultExecutor {
 
+  private final MetricEventPublisher metricEventPublisher;
+
+  // incremented by cancel(), a latency ends as soon as the epoch it was started in is over
+  private final AtomicLong epoch = new AtomicLong();
+
+  private final Set<Thread> parkedThreads = ConcurrentHashMap.newKeySet();
+
+  private final AtomicInteger parkedThreadCount = new AtomicInteger();
+
+  public LatencyAssaultExecutor() {
+    this(null);
+  }
+
+  public LatencyAssaultExecutor(MetricEventPublisher metricEventPublisher) {
+    this.metricEventPublisher = metricEventPublisher;
+  }
+
   @Override
   public void execute(long durationInMillis) {
+    // read before registering, so a cancel in between is seen by the loop below
+    long startEpoch = epoch.get();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationInMillis);
+    Thread thread = Thread.currentThread();
+    parkedThreads.add(thread);
+    publishParkedThreads(parkedThreadCount.incrementAndGet());
     try {
-      Thread.sleep(durationInMillis);
-    } catch (InterruptedException e) {
-      // do nothing
+      long remaining;
+      while (epoch.get() == startEpoch && (remaining = deadline - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(this, remaining);
+        if (thread.isInterrupted()) {
+          return;
+        }
+      }
+    } finally {
+      parkedThreads.remove(thread);
+      publishParkedThreads(parkedThreadCount.decrementAndGet());
+    }
+  }
+
+  @Override
+  public void cancel() {
+    epoch.incrementAndGet();
+    parkedThreads.forEach(LockSupport::unpark);
+  }
+
+  /** @return the number of threads that are currently waiting for a latency */
+  public int getParkedThreads() {
+    return parkedThreadCount.get();
+  }
+
+  private void publishParkedThreads(int count) {
+    if (metricEventPublisher != null) {
+      metricEventPublisher.publishMetricEvent(MetricType.LATENCY_ASSAULT_PARKED_THREADS, count);
     }
   }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import java.util.Random;
+
+/**
+ * Draws the latencies of the latency assault, see {@link LatencyDistributions}. Implementations are
+ * shared by all threads.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+  /**
+   * @param random source of randomness, usually the {@link java.util.concurrent.ThreadLocalRandom}
+   *     of the calling thread
+   * @return latency in milliseconds
+   */
+  int sample(Random random);
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.LatencyDistributionType;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+/** Creates the {@link LatencyDistribution} configured in the {@link AssaultProperties}. */
+@Slf4j
+public final class LatencyDistributions {
+
+  // z-score of the 99th percentile of the standard normal distribution
+  private static final double Z_99 = 2.3263;
+
+  // heavy tails are cut off at this multiple of the end of the latency range
+  private static final int MAX_TAIL_FACTOR = 10;
+
+  private LatencyDistributions() {}
+
+  public static LatencyDistribution of(AssaultProperties assaultProperties) {
+    int start = assaultProperties.getLatencyRangeStart();
+    int end = assaultProperties.getLatencyRangeEnd();
+    LatencyDistributionType type = assaultProperties.getLatencyDistribution();
+    if (type == null || start == end && type != LatencyDistributionType.EMPIRICAL) {
+      return uniform(start, end);
+    }
+    switch (type) {
+      case NORMAL:
+        return normal(start, end);
+      case LOG_NORMAL:
+        return logNormal(start, end);
+      case PARETO:
+        return pareto(start, end);
+      case BIMODAL:
+        return bimodal(start, end, assaultProperties.getLatencyBimodalSlowRatio());
+      case EMPIRICAL:
+        return empirical(assaultProperties.getLatencyHistogramLocation(), start, end);
+      default:
+        return uniform(start, end);
+    }
+  }
+
+  static LatencyDistribution uniform(int start, int end) {
+    if (start == end) {
+      return random -> start;
+    }
+    return random -> start + random.nextInt(end - start);
+  }
+
+  static LatencyDistribution normal(int start, int end) {
+    double mean = start + (end - start) / 2.0;
+    // 99.7 % of the latencies are within the range without clamping
+    double standardDeviation = (end - start) / 6.0;
+    return random -> clamp(mean + random.nextGaussian() * standardDeviation, start, end);
+  }
+
+  static LatencyDistribution logNormal(int median, int p99) {
+    double mu = Math.log(median);
+    double sigma = (Math.log(p99) - mu) / Z_99;
+    int max = maxTail(p99);
+    return random -> clamp(Math.exp(mu + random.nextGaussian() * sigma), 1, max);
+  }
+
+  static LatencyDistribution pareto(int minimum, int p99) {
+    // P(X > p99) = (minimum / p99) ^ alpha = 0.01
+    double alpha = Math.log(100) / Math.log((double) p99 / minimum);
+    int max = maxTail(p99);
+    return random ->
+        clamp(minimum * Math.pow(1.0 - random.nextDouble(), -1.0 / alpha), minimum, max);
+  }
+
+  static LatencyDistribution bimodal(int start, int end, double slowRatio) {
+    double range = end - start;
+    double fastMode = start + range / 10;
+    double slowMode = end - range / 10;
+    double standardDeviation = range / 20;
+    return random -> {
+      double mode = random.nextDouble() < slowRatio ? slowMode : fastMode;
+      return clamp(mode + random.nextGaussian() * standardDeviation, start, end);
+    };
+  }
+
+  static LatencyDistribution empirical(String location, int start, int end) {
+    if (location == null || location.isEmpty()) {
+      log.error("No latency histogram configured, using uniform latencies");
+      return uniform(start, end);
+    }
+    Resource resource = new DefaultResourceLoader().getResource(location);
+    try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+      return EmpiricalLatencyDistribution.read(reader);
+    } catch (IOException | IllegalArgumentException e) {
+      log.error("Could not read latency histogram {}, using uniform latencies", location, e);
+      return uniform(start, end);
+    }
+  }
+
+  private static int maxTail(int p99) {
+    return (int) Math.min((long) p99 * MAX_TAIL_FACTOR, Integer.MAX_VALUE);
+  }
+
+  private static int clamp(double latency, int min, int max) {
+    return (int) Math.round(Math.max(min, Math.min(max, latency)));
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates a queue in front of each watched target: every target can serve a fixed number of
+ * attacked calls at the same time, further calls wait until one of them is done. The latency of a
+ * call is its waiting time plus its own service time, so latencies grow with the number of calls in
+ * flight, like those of an overloaded dependency.
+ *
+ * <p>The queue only tracks when its servers are busy until, calls don't have to report when they
+ * are done. Every watcher type and signature gets its own queue when it is first attacked, outgoing
+ * requests queue per host, as the url includes path and query. Once a watcher type has {@link
+ * #MAX_QUEUES} queues, further names share one queue.
+ *
+ * <p>Calls that were cancelled or abandoned by their client keep their place in the queue, so the
+ * time a call waits for the ones before it is capped.
+ */
+public final class LatencyQueue {
+
+  // names of methods and hosts can be unbounded, so the queues stop growing at some point
+  static final int MAX_QUEUES = 10_000;
+
+  private final int capacity;
+
+  private final long maxWaitNanos;
+
+  // by ordinal of the watcher type, the last one for calls without type
+  private final ConcurrentMap<String, Servers>[] queues;
+
+  // shared by the names beyond MAX_QUEUES, same index as queues
+  private final Servers[] overflowQueues;
+
+  /**
+   * @param capacity number of calls each target serves at the same time
+   * @param maxWait longest time a call waits for the calls before it, in milliseconds
+   */
+  @SuppressWarnings("unchecked")
+  public LatencyQueue(int capacity, long maxWait) {
+    this.capacity = capacity;
+    this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWait);
+    this.queues = new ConcurrentMap[ChaosTarget.values().length + 1];
+    this.overflowQueues = new Servers[queues.length];
+    for (int i = 0; i < queues.length; i++) {
+      queues[i] = new ConcurrentHashMap<>();
+      overflowQueues[i] = new Servers(capacity);
+    }
+  }
+
+  /** @return number of calls each target serves at the same time */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @param type watched target, may be null
+   * @param simpleName signature or url of the watched call, may be null
+   * @param serviceTime time the call takes once it is served, in milliseconds
+   * @return latency of the call, including the time it waits in the queue, in milliseconds
+   */
+  public int latency(ChaosTarget type, String simpleName, int serviceTime) {
+    long latency =
+        servers(type, simpleName)
+            .enqueue(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(serviceTime), maxWaitNanos);
+    return (int) Math.min(TimeUnit.NANOSECONDS.toMillis(latency), Integer.MAX_VALUE);
+  }
+
+  private Servers servers(ChaosTarget type, String simpleName) {
+    int index = type != null ? type.ordinal() : queues.length - 1;
+    ConcurrentMap<String, Servers> targetQueues = queues[index];
+    String name =
+        simpleName == null ? "" : type != null && type.isOutgoing() ? host(simpleName) : simpleName;
+    Servers servers = targetQueues.get(name);
+    if (servers != null) {
+      return servers;
+    }
+    if (targetQueues.size() >= MAX_QUEUES) {
+      return overflowQueues[index];
+    }
+    return targetQueues.computeIfAbsent(name, key -> new Servers(capacity));
+  }
+
+  /** @return scheme and authority of the url, e.g. {@code https://example.com:8443} */
+  static String host(String url) {
+    int schemeEnd = url.indexOf("://");
+    int authorityStart = schemeEnd < 0 ? 0 : schemeEnd + 3;
+    for (int i = authorityStart; i < url.length(); i++) {
+      char c = url.charAt(i);
+      if (c == '/' || c == '?' || c == '#') {
+        return url.substring(0, i);
+      }
+    }
+    return url;
+  }
+
+  private static final class Servers {
+
+    // nano time at which each server is done with the calls assigned so far
+    private final long[] busyUntil;
+
+    private Servers(int capacity) {
+      busyUntil = new long[capacity];
+      // all servers are idle
+      Arrays.fill(busyUntil, System.nanoTime());
+    }
+
+    // short and never blocks inside, so virtual threads are not pinned for long
+    private synchronized long enqueue(long now, long serviceTime, long maxWait) {
+      int earliest = 0;
+      for (int i = 1; i < busyUntil.length; i++) {
+        if (busyUntil[i] - busyUntil[earliest] < 0) {
+          earliest = i;
+        }
+      }
+      long wait = Math.min(Math.max(busyUntil[earliest] - now, 0), maxWait);
+      long start = now + wait;
+      busyUntil[earliest] = start + serviceTime;
+      return busyUntil[earliest] - now;
+    }
+  }
+}
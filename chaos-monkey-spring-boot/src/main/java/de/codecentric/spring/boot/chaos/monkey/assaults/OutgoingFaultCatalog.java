@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFault;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFaultType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Compiled catalog of the faults of outgoing requests attacked by the exception assault. Without
+ * configured faults it only contains an error response with status 500.
+ */
+public final class OutgoingFaultCatalog {
+
+  public static final String ERROR_BODY =
+      "{\"error\": \"This is a Chaos Monkey for Spring Boot generated failure\"}";
+
+  // serialized once, error responses only wrap it
+  private static final byte[] ERROR_BODY_BYTES = ERROR_BODY.getBytes(StandardCharsets.UTF_8);
+
+  private static final OutgoingFaultCatalog DEFAULT =
+      new OutgoingFaultCatalog(Collections.singletonList(new OutgoingFault()));
+
+  private final Fault[] faults;
+
+  // cumulative weights, the fault at the first index above a random number is chosen
+  private final int[] weights;
+
+  private OutgoingFaultCatalog(List<OutgoingFault> outgoingFaults) {
+    this.faults = new Fault[outgoingFaults.size()];
+    this.weights = new int[outgoingFaults.size()];
+    int total = 0;
+    for (int i = 0; i < faults.length; i++) {
+      OutgoingFault outgoingFault = outgoingFaults.get(i);
+      faults[i] = new Fault(outgoingFault);
+      total += outgoingFault.getWeight();
+      weights[i] = total;
+    }
+  }
+
+  public static OutgoingFaultCatalog of(List<OutgoingFault> outgoingFaults) {
+    return CollectionUtils.isEmpty(outgoingFaults)
+        ? DEFAULT
+        : new OutgoingFaultCatalog(outgoingFaults);
+  }
+
+  /** @return a fault, chosen with the probability of its weight */
+  public Fault choose() {
+    if (faults.length == 1) {
+      return faults[0];
+    }
+    int index =
+        Arrays.binarySearch(
+            weights, ThreadLocalRandom.current().nextInt(weights[weights.length - 1]));
+    // an exact match is the end of a fault's share, so the next fault is chosen
+    return faults[index >= 0 ? index + 1 : -index - 1];
+  }
+
+  /** A fault of the catalog, all values are resolved when the catalog is compiled. */
+  public static final class Fault {
+
+    private final OutgoingFaultType type;
+
+    private final int status;
+
+    private final String retryAfter;
+
+    private final int timeout;
+
+    private Fault(OutgoingFault outgoingFault) {
+      this.type = outgoingFault.getType();
+      this.status = outgoingFault.getStatus();
+      this.retryAfter =
+          outgoingFault.getRetryAfter() == null ? null : outgoingFault.getRetryAfter().toString();
+      this.timeout = outgoingFault.getTimeout();
+    }
+
+    public OutgoingFaultType getType() {
+      return type;
+    }
+
+    public int getStatus() {
+      return status;
+    }
+
+    /** @return value of the Retry-After header, null if none is sent */
+    public String getRetryAfter() {
+      return retryAfter;
+    }
+
+    /** @return milliseconds until a read timeout fails */
+    public int getTimeout() {
+      return timeout;
+    }
+
+    /** @return body of the error response, shared by all responses, must not be modified */
+    public byte[] getBody() {
+      return ERROR_BODY_BYTES;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs actions after a latency on a shared timer thread, without blocking the caller. Like the
+ * latency executors, {@link #cancel()} ends all pending latencies, their actions run right away.
+ */
+final class ScheduledLatencies {
+
+  private final Set<Latency> pending = ConcurrentHashMap.newKeySet();
+
+  void schedule(Runnable action, long latency) {
+    Latency scheduled = new Latency(action);
+    pending.add(scheduled);
+    scheduled.future = Timer.INSTANCE.schedule(scheduled::run, latency, TimeUnit.MILLISECONDS);
+  }
+
+  /** Runs the actions of all pending latencies on the calling thread. */
+  void cancel() {
+    for (Latency latency : pending) {
+      ScheduledFuture<?> future = latency.future;
+      if (future != null) {
+        future.cancel(false);
+      }
+      latency.run();
+    }
+  }
+
+  private final class Latency {
+
+    private final Runnable action;
+
+    // actions run once, either by the timer or by cancel()
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private volatile ScheduledFuture<?> future;
+
+    private Latency(Runnable action) {
+      this.action = action;
+    }
+
+    private void run() {
+      if (done.compareAndSet(false, true)) {
+        pending.remove(this);
+        action.run();
+      }
+    }
+  }
+
+  // lazy holder, the thread is only started when a latency is scheduled
+  private static final class Timer {
+
+    private static final ScheduledExecutorService INSTANCE =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "chaos-monkey-latency");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the bytes passing per second. Bytes are let through in chunks of a tenth of a second at
+ * most, so they trickle in instead of arriving in bursts, and a chunk may pass early if the bucket
+ * was idle. A bucket is meant for a single response.
+ */
+public final class TokenBucket {
+
+  private static final int MAX_CHUNK_SIZE = 8192;
+
+  private final long nanosPerByte;
+
+  private final long capacityNanos;
+
+  private final int chunkSize;
+
+  // point in time all bytes let through so far have passed at the configured rate
+  private long passedAt;
+
+  public TokenBucket(long bytesPerSecond) {
+    if (bytesPerSecond < 1) {
+      throw new IllegalArgumentException("bytesPerSecond must be positive: " + bytesPerSecond);
+    }
+    this.nanosPerByte = Math.max(1, TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+    this.chunkSize = (int) Math.max(1, Math.min(MAX_CHUNK_SIZE, bytesPerSecond / 10));
+    this.capacityNanos = chunkSize * nanosPerByte;
+    this.passedAt = System.nanoTime();
+  }
+
+  /** @return the most bytes to request from the bucket at once */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Takes the tokens for the bytes, even if the bucket has to go into debt for it.
+   *
+   * @return nanoseconds to wait until the bytes may pass
+   */
+  public synchronized long reserve(int bytes) {
+    long now = System.nanoTime();
+    // an idle bucket does not save up more than its capacity
+    passedAt = Math.max(passedAt, now) + bytes * nanosPerByte;
+    return Math.max(0, passedAt - capacityNanos - now);
+  }
+
+  /**
+   * Waits until the bytes may pass.
+   *
+   * @throws InterruptedIOException if the thread is interrupted while waiting, the interrupt is
+   *     kept
+   */
+  public void acquire(int bytes) throws InterruptedIOException {
+    long deadline = System.nanoTime() + reserve(bytes);
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(this, remaining);
+      if (Thread.currentThread().isInterrupted()) {
+        throw new InterruptedIOException("Interrupted while throttling the response body");
+      }
+    }
+  }
+}
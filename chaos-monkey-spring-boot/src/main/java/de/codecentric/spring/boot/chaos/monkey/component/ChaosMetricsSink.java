@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Receives the metrics of watchers and assaults. Implementations are called on the request thread,
+ * so they should resolve their meters once and keep the per-call work to an increment.
+ */
+public interface ChaosMetricsSink {
+
+  /**
+   * A watcher intercepted a call.
+   *
+   * @param type metric type of the watcher
+   * @param signature pointcut of the intercepted method
+   */
+  void recordWatcherCall(MetricType type, String signature);
+
+  /**
+   * Counts an occurrence, e.g. a started assault.
+   *
+   * @param type metric type
+   * @param tags tag keys and values, alternating
+   */
+  void recordCount(MetricType type, String... tags);
+
+  /**
+   * Records the current value of a metric, e.g. the latency of the last attack.
+   *
+   * @param type metric type
+   * @param value current value
+   */
+  void recordValue(MetricType type, long value);
+
+  /**
+   * @return the calls watchers recognized per component, including components that are not exported
+   *     as separate meters, most called first
+   */
+  default List<WatchedComponentCount> getWatchedComponentCounts() {
+    return Collections.emptyList();
+  }
+}
@@ -17,22 +17,32 @@
 
 package de.codecentric.spring.boot.chaos.monkey.component;
 
-import static org.springframework.util.CollectionUtils.isEmpty;
-
 import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyAssault;
 import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
 import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRuntimeAssault;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.CachingChaosToggles;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggleNameMapper;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggles;
+import java.beans.PropertyDescriptor;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.DisposableBean;
 
 /** @author Benjamin Wilms */
-public class ChaosMonkeyRequestScope {
+public class ChaosMonkeyRequestScope implements DisposableBean {
 
   private final ChaosMonkeySettings chaosMonkeySettings;
 
@@ -42,6 +52,11 @@ public class ChaosMonkeyRequestScope {
 
   private MetricEventPublisher metricEventPublisher;
 
+  // compiled on first use and replaced as a whole when the settings change
+  private volatile ChaosMonkeySnapshot snapshot;
+
+  private long snapshotVersion;
+
   public ChaosMonkeyRequestScope(
       ChaosMonkeySettings chaosMonkeySettings,
       List<ChaosMonkeyRequestAssault> assaults,
@@ -68,8 +83,127 @@ public class ChaosMonkeyRequestScope {
     this.chaosToggleNameMapper = chaosToggleNameMapper;
   }
 
+  /**
+   * Cheap check that watchers use before doing any per-call work. A disabled Chaos Monkey costs a
+   * single volatile read here. Like all assault decisions it reads the current snapshot.
+   *
+   * @return whether Chaos Monkey is enabled in the current snapshot
+   */
+  public boolean isEnabled() {
+    return getSnapshot().isEnabled();
+  }
+
+  /**
+   * Compiles the current settings into a new snapshot and publishes it. Called once after the
+   * properties were bound again. Changes made through the setters of the properties are not seen
+   * by requests before this is called, use {@link #updateConfig(Consumer)} to change the settings
+   * at runtime.
+   */
+  public synchronized void reloadConfig() {
+    publish(chaosMonkeySettings);
+  }
+
+  /**
+   * Applies an update to a copy of the settings and publishes a snapshot compiled from that copy.
+   * Requests see either the old or the new snapshot, never a partly applied update, even though the
+   * copy is written back to the settings one property at a time. Lists are copied in both
+   * directions, so neither the update nor a caller holding a list can change the live settings
+   * afterwards.
+   *
+   * @param update changes the given copy of the settings
+   */
+  public synchronized void updateConfig(Consumer<ChaosMonkeySettings> update) {
+    ChaosMonkeySettings copy =
+        new ChaosMonkeySettings(
+            copy(chaosMonkeySettings.getChaosMonkeyProperties(), new ChaosMonkeyProperties()),
+            copy(chaosMonkeySettings.getAssaultProperties(), new AssaultProperties()),
+            copy(chaosMonkeySettings.getWatcherProperties(), new WatcherProperties()));
+    update.accept(copy);
+    // assaults tell from the settings whether they are active, so they are written back first
+    copy(copy.getChaosMonkeyProperties(), chaosMonkeySettings.getChaosMonkeyProperties());
+    copy(copy.getAssaultProperties(), chaosMonkeySettings.getAssaultProperties());
+    copy(copy.getWatcherProperties(), chaosMonkeySettings.getWatcherProperties());
+    publish(copy);
+  }
+
+  /** @return the toggles evaluated before a call is attacked */
+  public ChaosToggles getChaosToggles() {
+    return chaosToggles;
+  }
+
+  /**
+   * Stops the background refresh of a {@link CachingChaosToggles} the toggles were wrapped in. The
+   * cache is created for the scope and not a bean of its own, so Spring can't destroy it.
+   */
+  @Override
+  public void destroy() {
+    if (chaosToggles instanceof CachingChaosToggles) {
+      ((CachingChaosToggles) chaosToggles).destroy();
+    }
+  }
+
+  /** @return the configuration snapshot currently used to decide about attacks */
+  public ChaosMonkeySnapshot getSnapshot() {
+    ChaosMonkeySnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          reloadConfig();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  private void publish(ChaosMonkeySettings settings) {
+    ChaosMonkeySnapshot newSnapshot =
+        ChaosMonkeySnapshot.compile(++snapshotVersion, settings, assaults, snapshot);
+    assaults.forEach(assault -> assault.reloadConfig(newSnapshot));
+    this.snapshot = newSnapshot;
+  }
+
+  private static <T> T copy(T source, T target) {
+    BeanUtils.copyProperties(source, target);
+    BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(target);
+    for (PropertyDescriptor property : wrapper.getPropertyDescriptors()) {
+      String name = property.getName();
+      if (List.class.equals(property.getPropertyType())
+          && wrapper.isReadableProperty(name)
+          && wrapper.isWritableProperty(name)) {
+        List<?> list = (List<?>) wrapper.getPropertyValue(name);
+        if (list != null) {
+          wrapper.setPropertyValue(name, new ArrayList<>(list));
+        }
+      }
+    }
+    return target;
+  }
+
   public void callChaosMonkey(ChaosTarget type, String simpleName) {
-    if (isEnabled(type, simpleName) && isTrouble()) {
+    ChaosMonkeyRequestAssault assault = selectAssault(type, simpleName);
+    if (assault != null) {
+      assault.attack(type, simpleName);
+    }
+  }
+
+  /**
+   * Decides like {@link #callChaosMonkey(ChaosTarget, String)} whether and how a call is attacked,
+   * but leaves running the attack to the caller. Watchers that must not block the calling thread,
+   * e.g. in a reactive pipeline, use this to translate the assault into their own model.
+   *
+   * @return the assault to run, or {@code null} if the call is not attacked
+   */
+  public ChaosMonkeyRequestAssault selectAssault(ChaosTarget type, String simpleName) {
+    if (!isEnabled()) {
+      return null;
+    }
+
+    // read the snapshot once, so the whole decision is based on one config version
+    ChaosMonkeySnapshot config = getSnapshot();
+
+    // toggles are evaluated last, they may be expensive (e.g. Unleash strategies)
+    if (config.isWatched(type) && config.isTrouble(random()) && isEnabled(type, simpleName)) {
 
       if (metricEventPublisher != null) {
         metricEventPublisher.publishMetricEvent(MetricType.APPLICATION_REQ_COUNT, "type", "total");
@@ -77,49 +211,33 @@ public class ChaosMonkeyRequestScope {
 
       // Custom watched services can be defined at runtime, if there are any, only
       // these will be attacked!
-      if (chaosMonkeySettings.getAssaultProperties().isWatchedCustomServicesActive()) {
-        if (chaosMonkeySettings
-            .getAssaultProperties()
-            .getWatchedCustomServices()
-            .contains(simpleName)) {
-          // only all listed custom methods will be attacked
-          chooseAndRunAttack();
-        }
-      } else {
-        // default attack if no custom watched service is defined
-        chooseAndRunAttack();
+      if (!config.isWatchedCustomServicesActive() || config.isWatchedCustomService(simpleName)) {
+        return chooseAssault(config, type);
       }
     }
+    return null;
   }
 
-  private void chooseAndRunAttack() {
-    List<ChaosMonkeyAssault> activeAssaults =
-        assaults.stream().filter(ChaosMonkeyAssault::isActive).collect(Collectors.toList());
-    if (isEmpty(activeAssaults)) {
-      return;
+  private ChaosMonkeyRequestAssault chooseAssault(ChaosMonkeySnapshot config, ChaosTarget type) {
+    ChaosMonkeyRequestAssault assault = config.chooseAssault(type, random());
+    if (assault == null) {
+      return null;
     }
-    getRandomFrom(activeAssaults).attack();
 
     if (metricEventPublisher != null) {
       metricEventPublisher.publishMetricEvent(
           MetricType.APPLICATION_REQ_COUNT, "type", "assaulted");
     }
+    return assault;
   }
 
-  private ChaosMonkeyAssault getRandomFrom(List<ChaosMonkeyAssault> activeAssaults) {
-    int exceptionRand =
-        chaosMonkeySettings.getAssaultProperties().chooseAssault(activeAssaults.size());
-    return activeAssaults.get(exceptionRand);
-  }
-
-  private boolean isTrouble() {
-    return chaosMonkeySettings.getAssaultProperties().getTroubleRandom()
-        >= chaosMonkeySettings.getAssaultProperties().getLevel();
+  /** @return source of the trouble roll and the choice of the assault */
+  protected Random random() {
+    return ThreadLocalRandom.current();
   }
 
   private boolean isEnabled(ChaosTarget type, String name) {
-    return this.chaosMonkeySettings.getChaosMonkeyProperties().isEnabled()
-        && chaosToggles.isEnabled(chaosToggleNameMapper.mapName(type, name));
+    return chaosToggles.isEnabled(chaosToggleNameMapper.mapName(type, name));
   }
 
   private static class RequestAssaultAdapter implements ChaosMonkeyRequestAssault {
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionFactory;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyDistribution;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyDistributions;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyQueue;
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.LatencyDistributionType;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Immutable view of the settings used to decide about request assaults. A snapshot is compiled by
+ * {@link ChaosMonkeyRequestScope#reloadConfig()} and replaced as a whole, so a request always sees
+ * the values of a single configuration version. It is compiled again once after the properties were
+ * bound again and once per update made through the endpoints.
+ */
+public final class ChaosMonkeySnapshot {
+
+  private final long version;
+
+  private final boolean enabled;
+
+  private final int level;
+
+  private final int latencyRangeStart;
+
+  private final int latencyRangeEnd;
+
+  private final LatencyDistribution latencyDistribution;
+
+  // whether latencies are attacked with this snapshot, a latency queue is only kept while they are
+  private final boolean latencyAttacked;
+
+  private final LatencyDistributionType latencyDistributionType;
+
+  private final double latencyBimodalSlowRatio;
+
+  private final String latencyHistogramLocation;
+
+  private final LatencyQueue latencyQueue;
+
+  private final boolean latencyBurnCpu;
+
+  private final int bandwidthBytesPerSecond;
+
+  private final int hangTimeout;
+
+  private final ExceptionFactory exceptionFactory;
+
+  private final OutgoingFaultCatalog outgoingFaults;
+
+  private final boolean[] watchedTargets;
+
+  private final ChaosMonkeyRequestAssault[] activeAssaults;
+
+  // active assaults that apply to each target, the last entry is used for calls without a target
+  private final ChaosMonkeyRequestAssault[][] targetAssaults;
+
+  private final WatchedCustomServicesMatcher watchedCustomServices;
+
+  private final List<String> webFilterPaths;
+
+  private ChaosMonkeySnapshot(
+      long version,
+      boolean enabled,
+      AssaultProperties assaultProperties,
+      WatcherProperties watcherProperties,
+      ChaosMonkeyRequestAssault[] activeAssaults,
+      ChaosMonkeySnapshot previous) {
+    this.version = version;
+    this.enabled = enabled;
+    this.level = assaultProperties.getLevel();
+    this.latencyRangeStart = assaultProperties.getLatencyRangeStart();
+    this.latencyRangeEnd = assaultProperties.getLatencyRangeEnd();
+    this.latencyDistribution = LatencyDistributions.of(assaultProperties);
+    this.latencyAttacked = enabled && assaultProperties.isLatencyActive();
+    this.latencyDistributionType = assaultProperties.getLatencyDistribution();
+    this.latencyBimodalSlowRatio = assaultProperties.getLatencyBimodalSlowRatio();
+    this.latencyHistogramLocation = assaultProperties.getLatencyHistogramLocation();
+    this.latencyQueue = latencyQueue(assaultProperties.getLatencyQueueCapacity(), previous);
+    this.latencyBurnCpu = assaultProperties.isLatencyBurnCpu();
+    this.bandwidthBytesPerSecond = assaultProperties.getBandwidthBytesPerSecond();
+    this.hangTimeout = assaultProperties.getHangTimeout();
+    this.exceptionFactory = ExceptionFactory.of(assaultProperties.getException());
+    this.outgoingFaults = OutgoingFaultCatalog.of(assaultProperties.getOutgoingFaults());
+    this.watchedTargets = new boolean[ChaosTarget.values().length];
+    for (ChaosTarget target : ChaosTarget.values()) {
+      watchedTargets[target.ordinal()] = isWatcherActive(watcherProperties, target);
+    }
+    this.activeAssaults = activeAssaults;
+    this.targetAssaults = new ChaosMonkeyRequestAssault[ChaosTarget.values().length + 1][];
+    for (ChaosTarget target : ChaosTarget.values()) {
+      targetAssaults[target.ordinal()] = applyingTo(activeAssaults, target);
+    }
+    targetAssaults[targetAssaults.length - 1] = applyingTo(activeAssaults, null);
+    this.watchedCustomServices =
+        assaultProperties.isWatchedCustomServicesActive()
+            ? new WatchedCustomServicesMatcher(assaultProperties.getWatchedCustomServices())
+            : null;
+    this.webFilterPaths =
+        watcherProperties.getWebFilterPaths() != null
+            ? Collections.unmodifiableList(new ArrayList<>(watcherProperties.getWebFilterPaths()))
+            : Collections.emptyList();
+  }
+
+  /**
+   * @param previous the snapshot compiled before, its latency queue is kept if the latency did not
+   *     change, may be null
+   */
+  static ChaosMonkeySnapshot compile(
+      long version,
+      ChaosMonkeySettings settings,
+      List<ChaosMonkeyRequestAssault> assaults,
+      ChaosMonkeySnapshot previous) {
+    ChaosMonkeyRequestAssault[] activeAssaults =
+        assaults.stream()
+            .filter(ChaosMonkeyRequestAssault::isActive)
+            .toArray(ChaosMonkeyRequestAssault[]::new);
+    return new ChaosMonkeySnapshot(
+        version,
+        settings.getChaosMonkeyProperties().isEnabled(),
+        settings.getAssaultProperties(),
+        settings.getWatcherProperties(),
+        activeAssaults,
+        previous);
+  }
+
+  private LatencyQueue latencyQueue(int capacity, ChaosMonkeySnapshot previous) {
+    if (capacity <= 0) {
+      return null;
+    }
+    // calls in flight keep their place in the queue when unrelated settings change, the calls of
+    // a latency that was cancelled or replaced don't delay the following ones
+    if (previous != null
+        && previous.latencyQueue != null
+        && previous.latencyQueue.getCapacity() == capacity
+        && previous.latencyAttacked
+        && latencyAttacked
+        && hasSameLatencyAs(previous)) {
+      return previous.latencyQueue;
+    }
+    return new LatencyQueue(capacity, (long) latencyRangeEnd * capacity);
+  }
+
+  private boolean hasSameLatencyAs(ChaosMonkeySnapshot other) {
+    return latencyRangeStart == other.latencyRangeStart
+        && latencyRangeEnd == other.latencyRangeEnd
+        && latencyDistributionType == other.latencyDistributionType
+        && latencyBimodalSlowRatio == other.latencyBimodalSlowRatio
+        && Objects.equals(latencyHistogramLocation, other.latencyHistogramLocation);
+  }
+
+  private static ChaosMonkeyRequestAssault[] applyingTo(
+      ChaosMonkeyRequestAssault[] assaults, ChaosTarget target) {
+    return Arrays.stream(assaults)
+        .filter(assault -> assault.appliesTo(target))
+        .toArray(ChaosMonkeyRequestAssault[]::new);
+  }
+
+  private static boolean isWatcherActive(WatcherProperties watcherProperties, ChaosTarget target) {
+    switch (target) {
+      case CONTROLLER:
+        return watcherProperties.isController();
+      case REST_CONTROLLER:
+        return watcherProperties.isRestController();
+      case REPOSITORY:
+        return watcherProperties.isRepository();
+      case COMPONENT:
+        return watcherProperties.isComponent();
+      case SERVICE:
+        return watcherProperties.isService();
+      case REST_TEMPLATE:
+        return watcherProperties.isRestTemplate();
+      case WEB_CLIENT:
+        return watcherProperties.isWebClient();
+      case WEB_FILTER:
+        return watcherProperties.isWebFilter();
+      case ACTUATOR_HEALTH:
+        // health indicators have no watcher switch, they are attacked whenever the aspect runs
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /** @return increasing version, a new one is assigned on every reload */
+  public long getVersion() {
+    return version;
+  }
+
+  /** @return whether Chaos Monkey is enabled */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  public int getLatencyRangeStart() {
+    return latencyRangeStart;
+  }
+
+  public int getLatencyRangeEnd() {
+    return latencyRangeEnd;
+  }
+
+  /** @return draws latencies within the latency range of this snapshot */
+  public LatencyDistribution getLatencyDistribution() {
+    return latencyDistribution;
+  }
+
+  /** @return queue the latencies of the watched targets wait in, null if they don't queue */
+  public LatencyQueue getLatencyQueue() {
+    return latencyQueue;
+  }
+
+  /** @return whether blocking latencies keep the thread busy instead of waiting */
+  public boolean isLatencyBurnCpu() {
+    return latencyBurnCpu;
+  }
+
+  /** @return bandwidth response bodies are limited to by the bandwidth assault */
+  public int getBandwidthBytesPerSecond() {
+    return bandwidthBytesPerSecond;
+  }
+
+  /** @return milliseconds outgoing requests hang for the hang assault */
+  public int getHangTimeout() {
+    return hangTimeout;
+  }
+
+  /** @return creates the exceptions of the exception assault */
+  public ExceptionFactory getExceptionFactory() {
+    return exceptionFactory;
+  }
+
+  /** @return faults of outgoing requests attacked by the exception assault */
+  public OutgoingFaultCatalog getOutgoingFaults() {
+    return outgoingFaults;
+  }
+
+  /**
+   * @param target the watched target, calls without a target are always treated as watched
+   * @return whether the watcher for the given target was active when this snapshot was compiled
+   */
+  public boolean isWatched(ChaosTarget target) {
+    return target == null || watchedTargets[target.ordinal()];
+  }
+
+  /**
+   * Rolls whether a call is attacked, with a chance of one in {@code level}.
+   *
+   * @param random source of the roll, usually {@link java.util.concurrent.ThreadLocalRandom}
+   */
+  public boolean isTrouble(Random random) {
+    return level <= 1 || random.nextInt(level) + 1 >= level;
+  }
+
+  /**
+   * @param type watched target, may be null
+   * @param random source of the choice, usually {@link java.util.concurrent.ThreadLocalRandom}
+   * @return one of the active assaults that apply to the target, chosen with equal chance, null if
+   *     none of them is active
+   * @see ChaosMonkeyRequestAssault#appliesTo(ChaosTarget)
+   */
+  public ChaosMonkeyRequestAssault chooseAssault(ChaosTarget type, Random random) {
+    ChaosMonkeyRequestAssault[] assaults =
+        targetAssaults[type != null ? type.ordinal() : targetAssaults.length - 1];
+    int count = assaults.length;
+    return count == 0 ? null : assaults[count == 1 ? 0 : random.nextInt(count)];
+  }
+
+  public int getActiveAssaultCount() {
+    return activeAssaults.length;
+  }
+
+  public ChaosMonkeyRequestAssault getActiveAssault(int index) {
+    return activeAssaults[index];
+  }
+
+  public boolean isWatchedCustomServicesActive() {
+    return watchedCustomServices != null;
+  }
+
+  /**
+   * @param name signature of the watched method or url of the outgoing request
+   * @return whether the name matches one of the watched custom services
+   * @see WatchedCustomServicesMatcher
+   */
+  public boolean isWatchedCustomService(String name) {
+    return watchedCustomServices != null && watchedCustomServices.matches(name);
+  }
+
+  /**
+   * @return path patterns of the requests watched by the web filter watcher, all requests are
+   *     watched if empty
+   */
+  public List<String> getWebFilterPaths() {
+    return webFilterPaths;
+  }
+}
@@ -8,6 +8,7 @@ public enum ChaosTarget {
   SERVICE("service"),
   REST_TEMPLATE("restTemplate"),
   WEB_CLIENT("webClient"),
+  WEB_FILTER("webFilter"),
   ACTUATOR_HEALTH("actuatorHealth");
 
   private final String name;
@@ -19,4 +20,9 @@ public enum ChaosTarget {
   public String getName() {
     return name;
   }
+
+  /** @return whether the target watches outgoing requests of the application */
+  public boolean isOutgoing() {
+    return this == REST_TEMPLATE || this == WEB_CLIENT;
+  }
 }
@@ -22,18 +22,53 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 
-/** @author Benjamin Wilms */
+/**
+ * Entry point for the metrics of watchers and assaults. If a {@link ChaosMetricsSink} is set, the
+ * metrics are passed to it directly, otherwise they are published as {@link MetricEvent}s.
+ *
+ * @author Benjamin Wilms
+ */
 public class MetricEventPublisher implements ApplicationEventPublisherAware {
 
+  private static final String[] NO_TAGS = new String[0];
+
   private ApplicationEventPublisher publisher;
 
+  private ChaosMetricsSink metricsSink;
+
+  public MetricEventPublisher() {}
+
+  public MetricEventPublisher(ChaosMetricsSink metricsSink) {
+    this.metricsSink = metricsSink;
+  }
+
+  /**
+   * Used by the watchers for every watched call. Calling the varargs variant without tags would
+   * allocate an empty array per call.
+   */
+  public void publishMetricEvent(String signature, MetricType metricType) {
+    publishMetricEvent(signature, metricType, NO_TAGS);
+  }
+
   public void publishMetricEvent(String signature, MetricType metricType, String... tags) {
+    if (metricsSink != null) {
+      if (metricType.isSignatureOnlyEvent()) {
+        metricsSink.recordWatcherCall(metricType, signature);
+      } else {
+        metricsSink.recordCount(metricType, tags);
+      }
+      return;
+    }
     MetricEvent metricEvent = new MetricEvent(this, metricType, signature, tags);
 
     publisher.publishEvent(metricEvent);
   }
 
   public void publishMetricEvent(MetricType metricType, String... tags) {
+    if (metricsSink != null) {
+      metricsSink.recordCount(metricType, tags);
+      return;
+    }
     MetricEvent metricEvent = new MetricEvent(this, metricType, tags);
 
     publisher.publishEvent(metricEvent);
@@ -41,11 +76,19 @@ public class MetricEventPublisher implements ApplicationEventPublisherAware {
 
   public void publishMetricEvent(MetricType metricType, AtomicInteger atomicTimeoutGauge) {
     final long gaugeValue = (atomicTimeoutGauge == null) ? -1 : atomicTimeoutGauge.longValue();
+    if (metricsSink != null) {
+      metricsSink.recordValue(metricType, gaugeValue);
+      return;
+    }
     MetricEvent metricEvent = new MetricEvent(this, metricType, gaugeValue, null);
     publisher.publishEvent(metricEvent);
   }
 
   public void publishMetricEvent(MetricType type, long metricValue) {
+    if (metricsSink != null) {
+      metricsSink.recordValue(type, metricValue);
+      return;
+    }
     publisher.publishEvent(new MetricEvent(this, type, metricValue, null));
   }
 
@@ -8,7 +8,11 @@ public enum MetricType {
   COMPONENT("component", true, false),
   SERVICE("service", true, false),
   LATENCY_ASSAULT("assault.latency.count", false, false),
+  LATENCY_ASSAULT_PARKED_THREADS("assault.latency.parked_threads", false, false),
+  HANG_ASSAULT_PENDING("assault.hang.pending", false, false),
   EXCEPTION_ASSAULT("assault.exception.count", false, false),
+  BANDWIDTH_ASSAULT("assault.bandwidth.count", false, false),
+  HANG_ASSAULT("assault.hang.count", false, false),
   KILLAPP_ASSAULT("assault.killapp.count", false, true),
   APPLICATION_REQ_COUNT("application.request.count", false, true),
   MEMORY_ASSAULT("assault.memory.count", false, false),
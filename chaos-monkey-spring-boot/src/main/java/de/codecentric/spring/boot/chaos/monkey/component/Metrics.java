@@ -1,16 +1,36 @@
 package de.codecentric.spring.boot.chaos.monkey.component;
 
 import de.codecentric.spring.boot.chaos.monkey.events.MetricEvent;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.context.ApplicationListener;
 
-/** @author Benjamin Wilms */
+/**
+ * Listens to {@link MetricEvent}s and records them in Micrometer.
+ *
+ * @author Benjamin Wilms
+ * @deprecated metrics are passed to a {@link ChaosMetricsSink} directly, see {@link
+ *     MicrometerChaosMetricsSink}
+ */
+@Deprecated
 public class Metrics implements ApplicationListener<MetricEvent> {
 
   private MeterRegistry meterRegistry;
 
+  // watcher counters by metric type and method name, avoids rebuilding meter ids per event
+  private final Map<MetricType, Map<String, Counter>> watcherCounters =
+      new EnumMap<>(MetricType.class);
+
   public Metrics() {
     this.meterRegistry = io.micrometer.core.instrument.Metrics.globalRegistry;
+    for (MetricType type : MetricType.values()) {
+      if (type.isSignatureOnlyEvent()) {
+        watcherCounters.put(type, new ConcurrentHashMap<>());
+      }
+    }
   }
 
   private void counter(MetricType type, String... tags) {
@@ -21,9 +41,17 @@ public class Metrics implements ApplicationListener<MetricEvent> {
 
   private void counterWatcher(MetricType type, String name) {
     if (meterRegistry != null) {
-      meterRegistry
-          .counter(type.getMetricName() + ".watcher", "component", extractComponent(name))
-          .increment();
+      Map<String, Counter> counters = watcherCounters.get(type);
+      Counter counter = counters.get(name);
+      if (counter == null) {
+        counter =
+            counters.computeIfAbsent(
+                name,
+                key ->
+                    meterRegistry.counter(
+                        type.getMetricName() + ".watcher", "component", extractComponent(key)));
+      }
+      counter.increment();
     }
   }
 
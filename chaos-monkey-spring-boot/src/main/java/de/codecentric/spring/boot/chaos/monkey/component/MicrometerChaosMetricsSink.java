@@ -0,0 +1,330 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ChaosMetricsSink} backed by Micrometer. Meters are registered the first time a type, tag
+ * combination or watched method is seen. Afterwards a call only increments a striped {@link
+ * LongAdder}, the registry reads the sums through {@link FunctionCounter}s when it publishes.
+ *
+ * <p>With a positive {@code watcherTopK} at most that many components per watcher type get their
+ * own meter. Calls of other components are tracked in a {@link SpaceSavingSketch}, a component is
+ * exported once it was called {@code promotionThreshold} times and a slot is free. Once the slots
+ * are taken, a component called more often than the least called exported one replaces it, this is
+ * checked every {@link #REBALANCE_INTERVAL} calls of the component. Calls of components without
+ * meter are counted with the component tag {@code other}.
+ *
+ * <p>The meter of a replaced component is removed from the registry, so each watcher type has at
+ * most {@code watcherTopK} meters plus the one of {@code other}. Its further calls are counted as
+ * {@code other}, it gets a new meter if it is exported again. A call never waits for the rebalancing
+ * of another call, it is counted as {@code other} instead.
+ */
+public class MicrometerChaosMetricsSink implements ChaosMetricsSink {
+
+  static final String OTHER_COMPONENT = "other";
+
+  static final int REBALANCE_INTERVAL = 128;
+
+  private final MeterRegistry meterRegistry;
+
+  private final int watcherTopK;
+
+  private final long promotionThreshold;
+
+  private final Map<MetricType, Map<String, WatcherCount>> watcherCounts =
+      new EnumMap<>(MetricType.class);
+
+  private final Map<MetricType, SpaceSavingSketch> watcherSketches =
+      new EnumMap<>(MetricType.class);
+
+  private final Map<MetricType, Lock> promotionLocks = new EnumMap<>(MetricType.class);
+
+  private final AtomicReferenceArray<LongAdder> otherCounts =
+      new AtomicReferenceArray<>(MetricType.values().length);
+
+  private final AtomicReferenceArray<TaggedCount[]> counts =
+      new AtomicReferenceArray<>(MetricType.values().length);
+
+  private final AtomicReferenceArray<AtomicLong> values =
+      new AtomicReferenceArray<>(MetricType.values().length);
+
+  public MicrometerChaosMetricsSink() {
+    this(io.micrometer.core.instrument.Metrics.globalRegistry);
+  }
+
+  public MicrometerChaosMetricsSink(MeterRegistry meterRegistry) {
+    this(meterRegistry, 0, 1, 1);
+  }
+
+  public MicrometerChaosMetricsSink(
+      MeterRegistry meterRegistry, int watcherTopK, long promotionThreshold, int sketchSize) {
+    this.meterRegistry = meterRegistry;
+    this.watcherTopK = watcherTopK;
+    this.promotionThreshold = promotionThreshold;
+    for (MetricType type : MetricType.values()) {
+      if (type.isSignatureOnlyEvent()) {
+        watcherCounts.put(type, new ConcurrentHashMap<>());
+        if (isBounded()) {
+          watcherSketches.put(type, new SpaceSavingSketch(sketchSize));
+          promotionLocks.put(type, new ReentrantLock());
+        }
+      }
+    }
+  }
+
+  @Override
+  public void recordWatcherCall(MetricType type, String signature) {
+    Map<String, WatcherCount> counters = watcherCounts.get(type);
+    if (counters == null || signature == null) {
+      return;
+    }
+    WatcherCount count = counters.get(signature);
+    if (count != null) {
+      count.count.increment();
+    } else if (isBounded()) {
+      boundedWatcherCount(type, counters, signature).increment();
+    } else {
+      counters
+          .computeIfAbsent(signature, key -> registerWatcherCount(type, key, 0))
+          .count
+          .increment();
+    }
+  }
+
+  @Override
+  public List<WatchedComponentCount> getWatchedComponentCounts() {
+    List<WatchedComponentCount> result = new ArrayList<>();
+    for (Map.Entry<MetricType, Map<String, WatcherCount>> counters : watcherCounts.entrySet()) {
+      MetricType type = counters.getKey();
+      counters
+          .getValue()
+          .forEach(
+              (signature, count) ->
+                  result.add(
+                      new WatchedComponentCount(
+                          type, extractComponent(signature), count.count.sum(), 0, true)));
+      SpaceSavingSketch sketch = watcherSketches.get(type);
+      if (sketch != null) {
+        for (SpaceSavingSketch.Entry entry : sketch.entries()) {
+          if (!counters.getValue().containsKey(entry.getItem())) {
+            result.add(
+                new WatchedComponentCount(
+                    type,
+                    extractComponent(entry.getItem()),
+                    entry.getCount(),
+                    entry.getError(),
+                    false));
+          }
+        }
+      }
+    }
+    result.sort(Comparator.comparingLong(WatchedComponentCount::getCount).reversed());
+    return result;
+  }
+
+  private boolean isBounded() {
+    return watcherTopK > 0;
+  }
+
+  private LongAdder boundedWatcherCount(
+      MetricType type, Map<String, WatcherCount> counters, String signature) {
+    long guaranteedCount = watcherSketches.get(type).offer(signature);
+    if (guaranteedCount >= promotionThreshold
+        && (counters.size() < watcherTopK || guaranteedCount % REBALANCE_INTERVAL == 0)) {
+      WatcherCount promoted = promote(type, counters, signature, guaranteedCount);
+      if (promoted != null) {
+        return promoted.count;
+      }
+    }
+    LongAdder other = otherCounts.get(type.ordinal());
+    if (other == null) {
+      other = registerOtherCount(type);
+    }
+    return other;
+  }
+
+  /**
+   * Exports the component if a slot is free or it was called more often than the least called
+   * exported component, whose meter is removed.
+   *
+   * @return the count of the component, null if it is not exported
+   */
+  private WatcherCount promote(
+      MetricType type, Map<String, WatcherCount> counters, String signature, long guaranteedCount) {
+    Lock lock = promotionLocks.get(type);
+    if (!lock.tryLock()) {
+      // another call is rebalancing, this one is counted as other
+      return null;
+    }
+    try {
+      WatcherCount count = counters.get(signature);
+      if (count != null) {
+        return count;
+      }
+      if (counters.size() >= watcherTopK) {
+        WatcherCount least = null;
+        for (WatcherCount candidate : counters.values()) {
+          if (least == null || candidate.total() < least.total()) {
+            least = candidate;
+          }
+        }
+        if (least.total() >= guaranteedCount) {
+          return null;
+        }
+        counters.remove(least.signature);
+        meterRegistry.remove(least.meter);
+      }
+      count = registerWatcherCount(type, signature, guaranteedCount - 1);
+      counters.put(signature, count);
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private synchronized LongAdder registerOtherCount(MetricType type) {
+    LongAdder other = otherCounts.get(type.ordinal());
+    if (other == null) {
+      other = new LongAdder();
+      FunctionCounter.builder(type.getMetricName() + ".watcher", other, LongAdder::sum)
+          .tag("component", OTHER_COMPONENT)
+          .register(meterRegistry);
+      otherCounts.set(type.ordinal(), other);
+    }
+    return other;
+  }
+
+  @Override
+  public void recordCount(MetricType type, String... tags) {
+    String[] effectiveTags = tags == null ? new String[0] : tags;
+    TaggedCount[] known = counts.get(type.ordinal());
+    if (known != null) {
+      for (TaggedCount count : known) {
+        if (Arrays.equals(count.tags, effectiveTags)) {
+          count.count.increment();
+          return;
+        }
+      }
+    }
+    registerCount(type, effectiveTags).increment();
+  }
+
+  @Override
+  public void recordValue(MetricType type, long value) {
+    AtomicLong current = values.get(type.ordinal());
+    if (current == null) {
+      current = registerValue(type);
+    }
+    current.set(value);
+  }
+
+  private WatcherCount registerWatcherCount(
+      MetricType type, String signature, long countBeforeExport) {
+    LongAdder count = new LongAdder();
+    Meter meter =
+        FunctionCounter.builder(type.getMetricName() + ".watcher", count, LongAdder::sum)
+            .tag("component", extractComponent(signature))
+            .register(meterRegistry);
+    return new WatcherCount(signature, count, meter, countBeforeExport);
+  }
+
+  private synchronized LongAdder registerCount(MetricType type, String[] tags) {
+    TaggedCount[] known = counts.get(type.ordinal());
+    if (known != null) {
+      for (TaggedCount count : known) {
+        if (Arrays.equals(count.tags, tags)) {
+          return count.count;
+        }
+      }
+    }
+    LongAdder count = new LongAdder();
+    FunctionCounter.builder(type.getMetricName(), count, LongAdder::sum)
+        .tags(tags)
+        .register(meterRegistry);
+    TaggedCount[] updated =
+        known == null ? new TaggedCount[1] : Arrays.copyOf(known, known.length + 1);
+    updated[updated.length - 1] = new TaggedCount(tags.clone(), count);
+    counts.set(type.ordinal(), updated);
+    return count;
+  }
+
+  private synchronized AtomicLong registerValue(MetricType type) {
+    AtomicLong current = values.get(type.ordinal());
+    if (current == null) {
+      // the name is kept as it was published before, dashboards may rely on it
+      current = meterRegistry.gauge(type.getMetricName() + ".gauge.", new AtomicLong());
+      values.set(type.ordinal(), current);
+    }
+    return current;
+  }
+
+  private String extractComponent(String name) {
+    return name.replaceAll("execution.", "");
+  }
+
+  private static final class WatcherCount {
+
+    private final String signature;
+
+    private final LongAdder count;
+
+    private final Meter meter;
+
+    // calls counted by the sketch but not by the meter
+    private final long countBeforeExport;
+
+    private WatcherCount(String signature, LongAdder count, Meter meter, long countBeforeExport) {
+      this.signature = signature;
+      this.count = count;
+      this.meter = meter;
+      this.countBeforeExport = countBeforeExport;
+    }
+
+    private long total() {
+      return countBeforeExport + count.sum();
+    }
+  }
+
+  private static final class TaggedCount {
+
+    private final String[] tags;
+
+    private final LongAdder count;
+
+    private TaggedCount(String[] tags, LongAdder count) {
+      this.tags = tags;
+      this.count = count;
+    }
+  }
+}
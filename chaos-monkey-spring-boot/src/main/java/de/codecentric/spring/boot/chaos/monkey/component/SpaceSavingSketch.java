@@ -0,0 +1,199 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving sketch (Metwally et al.) that keeps the approximately most frequent items in a fixed
+ * number of counters. When all counters are in use, a new item replaces the one with the lowest
+ * count and inherits that count as its possible overestimation.
+ *
+ * <p>Larger sketches are split into stripes by the hash of the item, each with its own lock and its
+ * share of the counters, so concurrent callers rarely wait for each other. The counters of a stripe
+ * are kept in a min-heap, finding the one to replace and counting an item take O(log n).
+ */
+final class SpaceSavingSketch {
+
+  private static final int MAX_STRIPES = 16;
+
+  private static final int MIN_STRIPE_CAPACITY = 64;
+
+  private final Stripe[] stripes;
+
+  SpaceSavingSketch(int capacity) {
+    int stripeCount = 1;
+    while (stripeCount < MAX_STRIPES && capacity / (stripeCount * 2) >= MIN_STRIPE_CAPACITY) {
+      stripeCount *= 2;
+    }
+    int stripeCapacity = (capacity + stripeCount - 1) / stripeCount;
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(stripeCapacity);
+    }
+  }
+
+  /**
+   * Counts one occurrence of the item.
+   *
+   * @return the guaranteed count of the item, i.e. its count minus the possible overestimation
+   */
+  long offer(String item) {
+    int hash = item.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)].offer(item);
+  }
+
+  /** @return the tracked items, most frequent first */
+  List<Entry> entries() {
+    List<Entry> entries = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      stripe.addEntries(entries);
+    }
+    entries.sort(Comparator.comparingLong(Entry::getCount).reversed());
+    return entries;
+  }
+
+  private static final class Stripe {
+
+    private final Map<String, Counter> counters;
+
+    // min-heap by count
+    private final Counter[] heap;
+
+    private int size;
+
+    private Stripe(int capacity) {
+      this.counters = new HashMap<>(capacity * 2);
+      this.heap = new Counter[capacity];
+    }
+
+    private synchronized long offer(String item) {
+      Counter counter = counters.get(item);
+      if (counter != null) {
+        counter.count++;
+        siftDown(counter);
+      } else if (size < heap.length) {
+        counter = new Counter(item, 0);
+        counter.count++;
+        counters.put(item, counter);
+        siftUp(counter, size++);
+      } else {
+        // the root has the lowest count
+        Counter min = heap[0];
+        counters.remove(min.item);
+        counter = new Counter(item, min.count);
+        counter.count++;
+        counters.put(item, counter);
+        heap[0] = counter;
+        siftDown(counter);
+      }
+      return counter.count - counter.error;
+    }
+
+    private void siftUp(Counter counter, int index) {
+      while (index > 0) {
+        int parent = (index - 1) / 2;
+        if (heap[parent].count <= counter.count) {
+          break;
+        }
+        move(heap[parent], index);
+        index = parent;
+      }
+      move(counter, index);
+    }
+
+    private void siftDown(Counter counter) {
+      int index = counter.index;
+      while (true) {
+        int left = 2 * index + 1;
+        if (left >= size) {
+          break;
+        }
+        int right = left + 1;
+        int child = right < size && heap[right].count < heap[left].count ? right : left;
+        if (heap[child].count >= counter.count) {
+          break;
+        }
+        move(heap[child], index);
+        index = child;
+      }
+      move(counter, index);
+    }
+
+    private void move(Counter counter, int index) {
+      heap[index] = counter;
+      counter.index = index;
+    }
+
+    private synchronized void addEntries(List<Entry> entries) {
+      for (int i = 0; i < size; i++) {
+        Counter counter = heap[i];
+        entries.add(new Entry(counter.item, counter.count, counter.error));
+      }
+    }
+  }
+
+  private static final class Counter {
+
+    private final String item;
+
+    private final long error;
+
+    private long count;
+
+    private int index;
+
+    private Counter(String item, long error) {
+      this.item = item;
+      this.error = error;
+      // a replaced item's count is taken over as overestimation
+      this.count = error;
+    }
+  }
+
+  static final class Entry {
+
+    private final String item;
+
+    private final long count;
+
+    private final long error;
+
+    private Entry(String item, long count, long error) {
+      this.item = item;
+      this.count = count;
+      this.error = error;
+    }
+
+    String getItem() {
+      return item;
+    }
+
+    long getCount() {
+      return count;
+    }
+
+    long getError() {
+      return error;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import lombok.Value;
+
+/** Number of calls a watcher recognized for one component. */
+@Value
+public class WatchedComponentCount {
+
+  MetricType type;
+
+  String component;
+
+  /** Number of calls, for components that are not exported this is an upper bound. */
+  long count;
+
+  /** How much the count may be overestimated, always 0 for exported components. */
+  long error;
+
+  /** Whether the component has its own meter or is counted in the {@code other} bucket. */
+  boolean exported;
+}
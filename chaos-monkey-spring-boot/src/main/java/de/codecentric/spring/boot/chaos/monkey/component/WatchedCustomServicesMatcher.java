@@ -0,0 +1,177 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiled form of the configured watched custom services. Entries are split into
+ *
+ * <ul>
+ *   <li>exact names, e.g. {@code com.example.HelloController.sayHello}
+ *   <li>prefixes, entries ending with {@code **} and no other wildcard, e.g. {@code com.example.**}
+ *       or {@code http://localhost:8080/api/**}
+ *   <li>globs, where {@code *} matches within one segment (no {@code .} or {@code /}), {@code **}
+ *       matches anything and {@code ?} matches a single character, e.g. {@code
+ *       com.example.*Controller.say*} or {@code https://*.example.com/**}. Entries without {@code
+ *       *} are never globs, so a {@code ?} in the query string of a url is matched literally.
+ *   <li>regular expressions, entries starting with {@code regex:}
+ * </ul>
+ *
+ * Results are memoized per name, so repeated lookups for the same watched method are a single map
+ * read no matter how many patterns are configured.
+ */
+final class WatchedCustomServicesMatcher {
+
+  private static final Logger Logger = LoggerFactory.getLogger(WatchedCustomServicesMatcher.class);
+
+  static final String REGEX_PREFIX = "regex:";
+
+  // names of urls can be unbounded, so the memo stops growing at some point
+  static final int MAX_MEMOIZED_NAMES = 10_000;
+
+  private final Set<String> exactNames = new HashSet<>();
+
+  private final PrefixNode prefixes = new PrefixNode();
+
+  private final List<Pattern> patterns = new ArrayList<>();
+
+  private final Map<String, Boolean> memo = new ConcurrentHashMap<>();
+
+  WatchedCustomServicesMatcher(Collection<String> entries) {
+    for (String entry : entries) {
+      if (entry == null || entry.trim().isEmpty()) {
+        continue;
+      }
+      String trimmed = entry.trim();
+      if (trimmed.startsWith(REGEX_PREFIX)) {
+        try {
+          patterns.add(Pattern.compile(trimmed.substring(REGEX_PREFIX.length())));
+        } catch (PatternSyntaxException e) {
+          Logger.warn("Ignoring invalid watched custom service pattern {}", trimmed, e);
+        }
+      } else if (trimmed.indexOf('*') < 0) {
+        exactNames.add(trimmed);
+      } else if (trimmed.endsWith("**")
+          && !hasWildcard(trimmed.substring(0, trimmed.length() - 2))) {
+        prefixes.add(trimmed.substring(0, trimmed.length() - 2));
+      } else {
+        patterns.add(Pattern.compile(globToRegex(trimmed)));
+      }
+    }
+  }
+
+  boolean matches(String name) {
+    if (name == null) {
+      return false;
+    }
+    Boolean memoized = memo.get(name);
+    if (memoized != null) {
+      return memoized;
+    }
+    boolean result = evaluate(name);
+    if (memo.size() < MAX_MEMOIZED_NAMES) {
+      memo.put(name, result);
+    }
+    return result;
+  }
+
+  private boolean evaluate(String name) {
+    if (exactNames.contains(name) || prefixes.matchesPrefixOf(name)) {
+      return true;
+    }
+    for (Pattern pattern : patterns) {
+      if (pattern.matcher(name).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasWildcard(String entry) {
+    return entry.indexOf('*') >= 0 || entry.indexOf('?') >= 0;
+  }
+
+  private static String globToRegex(String glob) {
+    StringBuilder regex = new StringBuilder();
+    StringBuilder literal = new StringBuilder();
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (c == '*' || c == '?') {
+        if (literal.length() > 0) {
+          regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+        }
+        if (c == '?') {
+          regex.append("[^./]");
+        } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+          regex.append(".*");
+          i++;
+        } else {
+          regex.append("[^./]*");
+        }
+      } else {
+        literal.append(c);
+      }
+    }
+    if (literal.length() > 0) {
+      regex.append(Pattern.quote(literal.toString()));
+    }
+    return regex.toString();
+  }
+
+  private static final class PrefixNode {
+
+    private final Map<Character, PrefixNode> children = new HashMap<>();
+
+    private boolean terminal;
+
+    void add(String prefix) {
+      PrefixNode node = this;
+      for (int i = 0; i < prefix.length(); i++) {
+        node = node.children.computeIfAbsent(prefix.charAt(i), key -> new PrefixNode());
+      }
+      node.terminal = true;
+    }
+
+    boolean matchesPrefixOf(String name) {
+      PrefixNode node = this;
+      for (int i = 0; i < name.length(); i++) {
+        if (node.terminal) {
+          return true;
+        }
+        node = node.children.get(name.charAt(i));
+        if (node == null) {
+          return false;
+        }
+      }
+      return node.terminal;
+    }
+  }
+}
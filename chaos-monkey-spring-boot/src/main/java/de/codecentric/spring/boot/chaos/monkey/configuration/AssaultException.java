@@ -25,6 +25,8 @@ public class AssaultException {
   @Value("${arguments : #{null}}")
   private List<ExceptionArgument> arguments;
 
+  private boolean stackless = false;
+
   public List<ExceptionArgument> getArguments() {
     return arguments;
   }
@@ -77,7 +79,7 @@ public class AssaultException {
   }
 
   @JsonIgnore
-  private List<Object> getExceptionArgumentValues() {
+  public List<Object> getExceptionArgumentValues() {
     return arguments.stream().map(ExceptionArgument::getValue).collect(Collectors.toList());
   }
 
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.codecentric.spring.boot.chaos.monkey.endpoints.AssaultPropertiesUpdate;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import javax.validation.Valid;
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
@@ -53,10 +54,38 @@ public class AssaultProperties {
 
   private boolean latencyActive = false;
 
+  private LatencyDistributionType latencyDistribution = LatencyDistributionType.UNIFORM;
+
+  @DecimalMax("1.0")
+  @DecimalMin("0.0")
+  private double latencyBimodalSlowRatio = 0.1;
+
+  private String latencyHistogramLocation;
+
+  @Min(value = 0)
+  @Max(value = 10000)
+  private int latencyQueueCapacity = 0;
+
+  private boolean latencyBurnCpu = false;
+
   private boolean exceptionsActive = false;
 
   @AssaultExceptionConstraint private AssaultException exception;
 
+  @Valid private List<OutgoingFault> outgoingFaults;
+
+  private boolean bandwidthActive = false;
+
+  @Min(value = 1)
+  @Max(value = Integer.MAX_VALUE)
+  private int bandwidthBytesPerSecond = 4096;
+
+  private boolean hangActive = false;
+
+  @Min(value = 1)
+  @Max(value = Integer.MAX_VALUE)
+  private int hangTimeout = 30000;
+
   private boolean killApplicationActive = false;
 
   private volatile boolean memoryActive = false;
@@ -92,7 +121,12 @@ public class AssaultProperties {
 
   @JsonIgnore
   public int getTroubleRandom() {
-    return ThreadLocalRandom.current().nextInt(1, getLevel() + 1);
+    return getTroubleRandom(getLevel());
+  }
+
+  @JsonIgnore
+  public int getTroubleRandom(int level) {
+    return ThreadLocalRandom.current().nextInt(1, level + 1);
   }
 
   @JsonIgnore
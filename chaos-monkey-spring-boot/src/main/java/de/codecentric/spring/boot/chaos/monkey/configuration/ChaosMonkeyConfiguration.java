@@ -19,18 +19,20 @@ package de.codecentric.spring.boot.chaos.monkey.configuration;
 
 import de.codecentric.spring.boot.chaos.monkey.assaults.*;
 import de.codecentric.spring.boot.chaos.monkey.component.*;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.CachingChaosToggles;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggleContextProvider;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggleNameMapper;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggles;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggleNameMapper;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggles;
 import de.codecentric.spring.boot.chaos.monkey.endpoints.ChaosMonkeyJmxEndpoint;
 import de.codecentric.spring.boot.chaos.monkey.endpoints.ChaosMonkeyRestEndpoint;
-import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.*;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -50,12 +52,16 @@ import org.springframework.util.StreamUtils;
 @EnableConfigurationProperties({
   ChaosMonkeyProperties.class,
   AssaultProperties.class,
-  WatcherProperties.class
+  WatcherProperties.class,
+  ChaosMonkeyMetricsProperties.class
 })
 @Import({
   UnleashChaosConfiguration.class,
+  ChaosToggleCacheConfiguration.class,
   ChaosMonkeyWebClientConfiguration.class,
-  ChaosMonkeyRestTemplateConfiguration.class
+  ChaosMonkeyWebFilterConfiguration.class,
+  ChaosMonkeyRestTemplateConfiguration.class,
+  ChaosMonkeyWatcherConfiguration.class
 })
 @EnableScheduling
 public class ChaosMonkeyConfiguration {
@@ -70,13 +76,17 @@ public class ChaosMonkeyConfiguration {
 
   private final AssaultProperties assaultProperties;
 
+  private final ObjectProvider<ChaosMetricsSink> metricsSink;
+
   public ChaosMonkeyConfiguration(
       ChaosMonkeyProperties chaosMonkeyProperties,
       WatcherProperties watcherProperties,
-      AssaultProperties assaultProperties) {
+      AssaultProperties assaultProperties,
+      ObjectProvider<ChaosMetricsSink> metricsSink) {
     this.chaosMonkeyProperties = chaosMonkeyProperties;
     this.watcherProperties = watcherProperties;
     this.assaultProperties = assaultProperties;
+    this.metricsSink = metricsSink;
 
     try {
       String chaosLogo =
@@ -89,14 +99,19 @@ public class ChaosMonkeyConfiguration {
   }
 
   @Bean
+  @ConditionalOnMissingBean
   @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
-  public Metrics metrics() {
-    return new Metrics();
+  public ChaosMetricsSink chaosMetricsSink(ChaosMonkeyMetricsProperties metricsProperties) {
+    return new MicrometerChaosMetricsSink(
+        io.micrometer.core.instrument.Metrics.globalRegistry,
+        metricsProperties.getWatcherTopK(),
+        metricsProperties.getWatcherPromotionThreshold(),
+        metricsProperties.getWatcherSketchSize());
   }
 
   @Bean
   public MetricEventPublisher publisher() {
-    return new MetricEventPublisher();
+    return new MetricEventPublisher(metricsSink.getIfAvailable());
   }
 
   @Bean
@@ -114,6 +129,16 @@ public class ChaosMonkeyConfiguration {
     return new ExceptionAssault(settings(), publisher());
   }
 
+  @Bean
+  public BandwidthAssault bandwidthAssault() {
+    return new BandwidthAssault(settings(), publisher());
+  }
+
+  @Bean
+  public HangAssault hangAssault() {
+    return new HangAssault(settings(), publisher());
+  }
+
   @Bean
   public KillAppAssault killAppAssault() {
     return new KillAppAssault(settings(), publisher());
@@ -129,7 +154,21 @@ public class ChaosMonkeyConfiguration {
       List<ChaosMonkeyRequestAssault> chaosMonkeyAssaults,
       List<ChaosMonkeyAssault> allAssaults,
       ChaosToggles chaosToggles,
-      ChaosToggleNameMapper chaosToggleNameMapper) {
+      ChaosToggleNameMapper chaosToggleNameMapper,
+      ObjectProvider<ChaosToggleCacheProperties> toggleCacheProperties,
+      ObjectProvider<ChaosToggleContextProvider> toggleContextProvider) {
+    // only the decisions of the scope are cached, the toggles bean is left as it is
+    // the scope stops the refresh of the cache when it is destroyed
+    ChaosToggleCacheProperties cacheProperties = toggleCacheProperties.getIfAvailable();
+    if (cacheProperties != null) {
+      chaosToggles =
+          new CachingChaosToggles(
+              chaosToggles,
+              cacheProperties.getTtl(),
+              cacheProperties.getMaxEntries(),
+              toggleContextProvider.getIfAvailable(),
+              chaosMonkeyTaskScheduler());
+    }
     return new ChaosMonkeyRequestScope(
         settings(),
         chaosMonkeyAssaults,
@@ -139,6 +178,12 @@ public class ChaosMonkeyConfiguration {
         chaosToggleNameMapper);
   }
 
+  @Bean
+  public static ChaosMonkeyPropertiesRebindPostProcessor
+      chaosMonkeyPropertiesRebindPostProcessor() {
+    return new ChaosMonkeyPropertiesRebindPostProcessor();
+  }
+
   @Bean
   @ConditionalOnMissingBean(ChaosToggleNameMapper.class)
   public ChaosToggleNameMapper chaosToggleNameMapper(ChaosMonkeyProperties chaosMonkeyProperties) {
@@ -171,68 +216,21 @@ public class ChaosMonkeyConfiguration {
     return new ChaosMonkeyRuntimeScope(settings(), chaosMonkeyAssaults);
   }
 
-  @Bean
-  @DependsOn("chaosMonkeyRequestScope")
-  public SpringControllerAspect controllerAspect(ChaosMonkeyRequestScope chaosMonkeyRequestScope) {
-    return new SpringControllerAspect(chaosMonkeyRequestScope, publisher(), watcherProperties);
-  }
-
-  @Bean
-  @DependsOn("chaosMonkeyRequestScope")
-  public SpringRestControllerAspect restControllerAspect(
-      ChaosMonkeyRequestScope chaosMonkeyRequestScope) {
-    return new SpringRestControllerAspect(chaosMonkeyRequestScope, publisher(), watcherProperties);
-  }
-
-  @Bean
-  @DependsOn("chaosMonkeyRequestScope")
-  public SpringServiceAspect serviceAspect(ChaosMonkeyRequestScope chaosMonkeyRequestScope) {
-    return new SpringServiceAspect(chaosMonkeyRequestScope, publisher(), watcherProperties);
-  }
-
-  @Bean
-  @DependsOn("chaosMonkeyRequestScope")
-  public SpringComponentAspect componentAspect(ChaosMonkeyRequestScope chaosMonkeyRequestScope) {
-    return new SpringComponentAspect(chaosMonkeyRequestScope, publisher(), watcherProperties);
-  }
-
-  @Bean
-  @DependsOn("chaosMonkeyRequestScope")
-  @ConditionalOnClass(name = "org.springframework.data.repository.Repository")
-  // Creates aspects that match interfaces annotated with @Repository
-  public SpringRepositoryAspectJPA repositoryAspectJpa(
-      ChaosMonkeyRequestScope chaosMonkeyRequestScope) {
-    return new SpringRepositoryAspectJPA(chaosMonkeyRequestScope, publisher(), watcherProperties);
-  }
-
-  @Bean
-  @DependsOn("chaosMonkeyRequestScope")
-  // creates aspects that match simple classes annotated with @repository
-  public SpringRepositoryAspectJDBC repositoryAspectJdbc(
-      ChaosMonkeyRequestScope chaosMonkeyRequestScope) {
-    return new SpringRepositoryAspectJDBC(chaosMonkeyRequestScope, publisher(), watcherProperties);
-  }
-
-  @Bean
-  @DependsOn("chaosMonkeyRequestScope")
-  @ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
-  public SpringBootHealthIndicatorAspect springBootHealthIndicatorAspect(
-      ChaosMonkeyRequestScope chaosMonkeyRequestScope) {
-    return new SpringBootHealthIndicatorAspect(chaosMonkeyRequestScope);
-  }
-
   @Bean
   @ConditionalOnMissingBean
   @ConditionalOnAvailableEndpoint
   public ChaosMonkeyRestEndpoint chaosMonkeyRestEndpoint(
-      ChaosMonkeyRuntimeScope runtimeScope, ChaosMonkeyScheduler scheduler) {
-    return new ChaosMonkeyRestEndpoint(settings(), runtimeScope, scheduler);
+      ChaosMonkeyRequestScope requestScope,
+      ChaosMonkeyRuntimeScope runtimeScope,
+      ChaosMonkeyScheduler scheduler) {
+    return new ChaosMonkeyRestEndpoint(
+        settings(), requestScope, runtimeScope, scheduler, metricsSink.getIfAvailable());
   }
 
   @Bean
   @ConditionalOnMissingBean
   @ConditionalOnAvailableEndpoint
-  public ChaosMonkeyJmxEndpoint chaosMonkeyJmxEndpoint() {
-    return new ChaosMonkeyJmxEndpoint(settings());
+  public ChaosMonkeyJmxEndpoint chaosMonkeyJmxEndpoint(ChaosMonkeyRequestScope requestScope) {
+    return new ChaosMonkeyJmxEndpoint(settings(), requestScope);
   }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import javax.validation.constraints.Min;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@NoArgsConstructor
+@ConfigurationProperties(prefix = "chaos.monkey.metrics")
+@Validated
+public class ChaosMonkeyMetricsProperties {
+
+  /**
+   * Maximum number of components per watcher type that get their own meter. All other components
+   * are counted in one meter tagged {@code other}. 0 exports every component.
+   */
+  @Min(value = 0)
+  private int watcherTopK = 0;
+
+  /** Number of calls after which a component is exported, if there is a free slot. */
+  @Min(value = 1)
+  private long watcherPromotionThreshold = 100;
+
+  /** Number of components per watcher type that are tracked to find the most called ones. */
+  @Min(value = 1)
+  private int watcherSketchSize = 1000;
+}
@@ -25,7 +25,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "chaos.monkey")
 public class ChaosMonkeyProperties {
 
-  private boolean enabled = false;
+  private volatile boolean enabled = false;
 
   private String togglePrefix = "chaos.monkey";
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Reloads the config of the request scopes once after the Chaos Monkey properties were bound again,
+ * e.g. when the context is refreshed. Properties are bound before they are initialized, so a scope
+ * publishes a single snapshot per bound properties object instead of one per property.
+ */
+public class ChaosMonkeyPropertiesRebindPostProcessor implements BeanPostProcessor {
+
+  // the first binding happens before the scopes exist, they compile their snapshot on first use
+  private final List<ChaosMonkeyRequestScope> requestScopes = new CopyOnWriteArrayList<>();
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof ChaosMonkeyRequestScope) {
+      requestScopes.add((ChaosMonkeyRequestScope) bean);
+    } else if (bean instanceof ChaosMonkeyProperties
+        || bean instanceof AssaultProperties
+        || bean instanceof WatcherProperties) {
+      requestScopes.forEach(ChaosMonkeyRequestScope::reloadConfig);
+    }
+    return bean;
+  }
+}
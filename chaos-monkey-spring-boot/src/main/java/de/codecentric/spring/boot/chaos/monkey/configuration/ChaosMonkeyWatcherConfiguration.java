@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringBootHealthIndicatorAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringComponentAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringControllerAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringRepositoryAspectJDBC;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringRepositoryAspectJPA;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringRestControllerAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringServiceAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.WatcherAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Watchers for the Spring stereotypes and the actuator health indicators. The advisors are looked
+ * up before most other beans are created, so the request scope and the metric publisher are only
+ * resolved on the first watched call.
+ */
+@Configuration
+class ChaosMonkeyWatcherConfiguration {
+
+  private final WatcherProperties watcherProperties;
+
+  private final ObjectProvider<ChaosMonkeyRequestScope> chaosMonkeyRequestScope;
+
+  private final ObjectProvider<MetricEventPublisher> metricEventPublisher;
+
+  ChaosMonkeyWatcherConfiguration(
+      WatcherProperties watcherProperties,
+      ObjectProvider<ChaosMonkeyRequestScope> chaosMonkeyRequestScope,
+      ObjectProvider<MetricEventPublisher> metricEventPublisher) {
+    this.watcherProperties = watcherProperties;
+    this.chaosMonkeyRequestScope = chaosMonkeyRequestScope;
+    this.metricEventPublisher = metricEventPublisher;
+  }
+
+  @Bean
+  public WatcherAdvisor controllerWatcher() {
+    return new WatcherAdvisor(
+        SpringControllerAspect.class,
+        () ->
+            new SpringControllerAspect(
+                chaosMonkeyRequestScope.getObject(),
+                metricEventPublisher.getObject(),
+                watcherProperties),
+        watcherProperties,
+        WatcherProperties::isController,
+        true);
+  }
+
+  @Bean
+  public WatcherAdvisor restControllerWatcher() {
+    return new WatcherAdvisor(
+        SpringRestControllerAspect.class,
+        () ->
+            new SpringRestControllerAspect(
+                chaosMonkeyRequestScope.getObject(),
+                metricEventPublisher.getObject(),
+                watcherProperties),
+        watcherProperties,
+        WatcherProperties::isRestController,
+        true);
+  }
+
+  @Bean
+  public WatcherAdvisor serviceWatcher() {
+    return new WatcherAdvisor(
+        SpringServiceAspect.class,
+        () ->
+            new SpringServiceAspect(
+                chaosMonkeyRequestScope.getObject(),
+                metricEventPublisher.getObject(),
+                watcherProperties),
+        watcherProperties,
+        WatcherProperties::isService,
+        true);
+  }
+
+  @Bean
+  public WatcherAdvisor componentWatcher() {
+    return new WatcherAdvisor(
+        SpringComponentAspect.class,
+        () ->
+            new SpringComponentAspect(
+                chaosMonkeyRequestScope.getObject(),
+                metricEventPublisher.getObject(),
+                watcherProperties),
+        watcherProperties,
+        WatcherProperties::isComponent,
+        true);
+  }
+
+  @Bean
+  @ConditionalOnClass(name = "org.springframework.data.repository.Repository")
+  // watches interfaces annotated with @Repository
+  public WatcherAdvisor repositoryWatcherJpa() {
+    return new WatcherAdvisor(
+        SpringRepositoryAspectJPA.class,
+        () ->
+            new SpringRepositoryAspectJPA(
+                chaosMonkeyRequestScope.getObject(),
+                metricEventPublisher.getObject(),
+                watcherProperties),
+        watcherProperties,
+        WatcherProperties::isRepository,
+        true);
+  }
+
+  @Bean
+  // watches simple classes annotated with @Repository
+  public WatcherAdvisor repositoryWatcherJdbc() {
+    return new WatcherAdvisor(
+        SpringRepositoryAspectJDBC.class,
+        () ->
+            new SpringRepositoryAspectJDBC(
+                chaosMonkeyRequestScope.getObject(),
+                metricEventPublisher.getObject(),
+                watcherProperties),
+        watcherProperties,
+        WatcherProperties::isRepository,
+        true);
+  }
+
+  @Bean
+  @ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+  // health indicators are mostly part of Spring Boot, so they are not limited to the packages.
+  // They have never had a watcher switch and are always watched
+  public WatcherAdvisor healthIndicatorWatcher() {
+    return new WatcherAdvisor(
+        SpringBootHealthIndicatorAspect.class,
+        () -> new SpringBootHealthIndicatorAspect(chaosMonkeyRequestScope.getObject()),
+        watcherProperties,
+        properties -> true,
+        false);
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.watcher.incoming.ChaosMonkeyWebFilterWatcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.web.server.WebFilter;
+
+@Configuration
+@ConditionalOnProperty(prefix = "chaos.monkey.watcher", value = "web-filter", havingValue = "true")
+@ConditionalOnClass(value = WebFilter.class)
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+class ChaosMonkeyWebFilterConfiguration {
+
+  @Bean
+  @DependsOn("chaosMonkeyRequestScope")
+  public ChaosMonkeyWebFilterWatcher chaosMonkeyWebFilterWatcher(
+      final ChaosMonkeyRequestScope chaosMonkeyRequestScope,
+      final WatcherProperties watcherProperties) {
+    return new ChaosMonkeyWebFilterWatcher(chaosMonkeyRequestScope, watcherProperties);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.CachingChaosToggles;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggles;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the toggle cache of the request scope, see {@link
+ * ChaosMonkeyConfiguration#chaosMonkeyRequestScope}.
+ */
+@Configuration
+@ConditionalOnProperty(value = "chaos.monkey.toggle.cache.enabled", havingValue = "true")
+@EnableConfigurationProperties(ChaosToggleCacheProperties.class)
+class ChaosToggleCacheConfiguration {
+
+  @Bean
+  public MeterBinder chaosToggleCacheMetrics(
+      ObjectProvider<ChaosMonkeyRequestScope> chaosMonkeyRequestScope) {
+    return registry -> {
+      ChaosToggles chaosToggles = chaosMonkeyRequestScope.getObject().getChaosToggles();
+      if (chaosToggles instanceof CachingChaosToggles) {
+        ((CachingChaosToggles) chaosToggles).bindTo(registry);
+      }
+    };
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Only accepts statuses that {@link HttpStatus} knows, clients like the RestTemplate fail to read
+ * the status of a response with any other status.
+ */
+public class HttpStatusValidator implements ConstraintValidator<HttpStatusConstraint, Integer> {
+
+  @Override
+  public boolean isValid(Integer status, ConstraintValidatorContext constraintValidatorContext) {
+    return status == null || HttpStatus.resolve(status) != null;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+/** Shape of the latencies added by the latency assault. */
+public enum LatencyDistributionType {
+  /** every latency between the start and the end of the latency range is equally likely */
+  UNIFORM,
+  /** normal distribution around the middle of the latency range, limited to the range */
+  NORMAL,
+  /** log-normal distribution, the start of the latency range is the median, the end the p99 */
+  LOG_NORMAL,
+  /** Pareto distribution, the start of the latency range is the minimum, the end the p99 */
+  PARETO,
+  /** most latencies near the start of the latency range, a share of slow ones near its end */
+  BIMODAL,
+  /** replays a recorded latency histogram, the latency range is not used */
+  EMPIRICAL
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entry of the catalog of faults the RestTemplate and WebClient watchers choose from, when the
+ * exception assault attacks an outgoing request.
+ */
+@Data
+@NoArgsConstructor
+public class OutgoingFault {
+
+  @NotNull private OutgoingFaultType type = OutgoingFaultType.HTTP_STATUS;
+
+  /** Status of the error response of {@link OutgoingFaultType#HTTP_STATUS}. */
+  @Min(value = 400)
+  @Max(value = 599)
+  @HttpStatusConstraint
+  private int status = 500;
+
+  /** Seconds sent in the Retry-After header of {@link OutgoingFaultType#HTTP_STATUS}, if set. */
+  @Min(value = 0)
+  private Integer retryAfter;
+
+  /**
+   * Milliseconds until a {@link OutgoingFaultType#READ_TIMEOUT} fails, should be the read timeout
+   * configured for the client. The watchers can't read the timeout from the clients, so by default
+   * the request fails right away instead of waiting for a made up timeout.
+   */
+  @Min(value = 0)
+  @Max(value = Integer.MAX_VALUE)
+  private int timeout = 0;
+
+  /** Relative frequency of this fault within the catalog. */
+  @Min(value = 1)
+  @Max(value = 10000)
+  private int weight = 1;
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+/** How an outgoing request attacked by the exception assault fails. */
+public enum OutgoingFaultType {
+  /** an error response with the configured status, optionally with a Retry-After header */
+  HTTP_STATUS,
+  /** the connection is reset before a response is received */
+  CONNECTION_RESET,
+  /** no response is received until the configured timeout is over */
+  READ_TIMEOUT
+}
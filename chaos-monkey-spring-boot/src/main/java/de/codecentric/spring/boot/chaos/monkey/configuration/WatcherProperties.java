@@ -16,6 +16,8 @@
 
 package de.codecentric.spring.boot.chaos.monkey.configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -26,19 +28,53 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "chaos.monkey.watcher")
 public class WatcherProperties {
 
-  private boolean controller = false;
+  private volatile boolean controller = false;
 
-  private boolean restController = false;
+  private volatile boolean restController = false;
 
-  private boolean service = false;
+  private volatile boolean service = false;
 
-  private boolean repository = false;
+  private volatile boolean repository = false;
 
-  private boolean component = false;
+  private volatile boolean component = false;
 
-  private boolean restTemplate = false;
+  private volatile boolean restTemplate = false;
 
-  private boolean webClient = false;
+  /**
+   * Decide about the assault before a RestTemplate request is sent. Exception assaults then don't
+   * reach the downstream service and latency is added before the request instead of after the
+   * response.
+   */
+  private volatile boolean restTemplatePreFlight = false;
+
+  private volatile boolean webClient = false;
+
+  private volatile boolean webFilter = false;
+
+  /**
+   * Path patterns, e.g. {@code /api/**}, of the requests watched by the WebFlux web filter watcher.
+   * All requests if empty.
+   */
+  private volatile List<String> webFilterPaths = new ArrayList<>();
+
+  private volatile boolean actuatorHealth = false;
+
+  /**
+   * Only proxy the beans of stereotype watchers that are enabled when the bean is created. Saves the
+   * proxies of disabled watchers, but a watcher enabled at runtime then only watches beans created
+   * afterwards.
+   */
+  private volatile boolean proxyOnlyEnabled = false;
+
+  /**
+   * Packages, including their subpackages, of the beans watched by the stereotype watchers. All
+   * packages if empty.
+   */
+  private volatile List<String> includePackages = new ArrayList<>();
+
+  /**
+   * Packages, including their subpackages, of the beans never watched by the stereotype watchers.
+   */
+  private volatile List<String> excludePackages = new ArrayList<>();
 
-  private boolean actuatorHealth = false;
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration.toggles;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+/**
+ * Caches the decisions of another {@link ChaosToggles} implementation, so evaluating a toggle on
+ * the request thread is a map read.
+ *
+ * <p>Context free decisions are evaluated once and refreshed in the background every {@code ttl}.
+ * If a {@link ChaosToggleContextProvider} returns a context, the decision is cached per toggle and
+ * context and evaluated again on the calling thread once it is older than {@code ttl}, because such
+ * toggles usually read thread bound state like the current request.
+ *
+ * <p>The refresh runs on the given {@link TaskScheduler}. Without one, the cache starts its own
+ * thread, which is stopped by {@link #destroy()}.
+ */
+public class CachingChaosToggles implements ChaosToggles, MeterBinder, DisposableBean {
+
+  private static final Logger Logger = LoggerFactory.getLogger(CachingChaosToggles.class);
+
+  private final ChaosToggles delegate;
+
+  private final ChaosToggleContextProvider contextProvider;
+
+  private final long ttlNanos;
+
+  private final int maxEntries;
+
+  private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+  private final Map<String, Map<String, ContextDecision>> contextDecisions =
+      new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder refreshes = new LongAdder();
+
+  // only set if the cache started its own refresh thread
+  private final ScheduledExecutorService ownRefresher;
+
+  private final ScheduledFuture<?> refreshTask;
+
+  /**
+   * @param contextProvider supplies the context of a decision, may be null
+   * @param scheduler runs the background refresh
+   */
+  public CachingChaosToggles(
+      ChaosToggles delegate,
+      Duration ttl,
+      int maxEntries,
+      ChaosToggleContextProvider contextProvider,
+      TaskScheduler scheduler) {
+    this(delegate, ttl, maxEntries, contextProvider, scheduler, null);
+  }
+
+  public CachingChaosToggles(
+      ChaosToggles delegate,
+      Duration ttl,
+      int maxEntries,
+      ChaosToggleContextProvider contextProvider) {
+    this(delegate, ttl, maxEntries, contextProvider, null, ownRefresher());
+  }
+
+  public CachingChaosToggles(ChaosToggles delegate, Duration ttl) {
+    this(delegate, ttl, 10_000, null);
+  }
+
+  private CachingChaosToggles(
+      ChaosToggles delegate,
+      Duration ttl,
+      int maxEntries,
+      ChaosToggleContextProvider contextProvider,
+      TaskScheduler scheduler,
+      ScheduledExecutorService ownRefresher) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      if (ownRefresher != null) {
+        ownRefresher.shutdownNow();
+      }
+      throw new IllegalArgumentException("The toggle cache ttl has to be positive, was " + ttl);
+    }
+    this.delegate = delegate;
+    this.contextProvider = contextProvider;
+    this.ttlNanos = ttl.toNanos();
+    this.maxEntries = maxEntries;
+    this.ownRefresher = ownRefresher;
+    TaskScheduler refresher =
+        scheduler != null ? scheduler : new ConcurrentTaskScheduler(ownRefresher);
+    this.refreshTask =
+        refresher.scheduleWithFixedDelay(this::refresh, Instant.now().plus(ttl), ttl);
+  }
+
+  private static ScheduledExecutorService ownRefresher() {
+    return Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(runnable, "chaos-monkey-toggle-cache");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @Override
+  public boolean isEnabled(String toggleName) {
+    String context = contextProvider != null ? contextProvider.currentContext() : null;
+    if (context == null) {
+      Boolean decision = decisions.get(toggleName);
+      if (decision != null) {
+        hits.increment();
+        return decision;
+      }
+      misses.increment();
+      boolean enabled = delegate.isEnabled(toggleName);
+      if (decisions.size() < maxEntries) {
+        decisions.put(toggleName, enabled);
+      }
+      return enabled;
+    }
+    return isEnabled(toggleName, context);
+  }
+
+  private boolean isEnabled(String toggleName, String context) {
+    Map<String, ContextDecision> byContext = contextDecisions.get(toggleName);
+    if (byContext == null) {
+      byContext = contextDecisions.computeIfAbsent(toggleName, key -> new ConcurrentHashMap<>());
+    }
+    long now = System.nanoTime();
+    ContextDecision decision = byContext.get(context);
+    if (decision != null && !decision.isExpired(now, ttlNanos)) {
+      hits.increment();
+      return decision.enabled;
+    }
+    misses.increment();
+    boolean enabled = delegate.isEnabled(toggleName);
+    if (decision != null || byContext.size() < maxEntries) {
+      byContext.put(context, new ContextDecision(enabled, now));
+    }
+    return enabled;
+  }
+
+  /** Evaluates all cached context free toggles again and drops expired context decisions. */
+  void refresh() {
+    for (String toggleName : decisions.keySet()) {
+      try {
+        decisions.put(toggleName, delegate.isEnabled(toggleName));
+        refreshes.increment();
+      } catch (RuntimeException e) {
+        Logger.warn("Refreshing chaos toggle {} failed, keeping the last decision", toggleName, e);
+      }
+    }
+    long now = System.nanoTime();
+    contextDecisions.values().forEach(it -> it.values().removeIf(d -> d.isExpired(now, ttlNanos)));
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getRefreshes() {
+    return refreshes.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("chaos.monkey.toggle.cache", this, CachingChaosToggles::getHits)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("chaos.monkey.toggle.cache", this, CachingChaosToggles::getMisses)
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder(
+            "chaos.monkey.toggle.cache.refresh", this, CachingChaosToggles::getRefreshes)
+        .register(registry);
+  }
+
+  @Override
+  public void destroy() {
+    refreshTask.cancel(false);
+    if (ownRefresher != null) {
+      ownRefresher.shutdownNow();
+    }
+  }
+
+  private static final class ContextDecision {
+
+    private final boolean enabled;
+
+    private final long evaluatedAt;
+
+    private ContextDecision(boolean enabled, long evaluatedAt) {
+      this.enabled = enabled;
+      this.evaluatedAt = evaluatedAt;
+    }
+
+    private boolean isExpired(long now, long ttlNanos) {
+      return now - evaluatedAt >= ttlNanos;
+    }
+  }
+}
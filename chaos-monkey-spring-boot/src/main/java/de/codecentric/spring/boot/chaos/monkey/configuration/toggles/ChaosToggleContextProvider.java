@@ -0,0 +1,30 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration.toggles;
+
+/**
+ * Supplies the context a toggle decision depends on, e.g. the current user or tenant. {@link
+ * CachingChaosToggles} caches decisions per toggle name and context, so toggles that look at the
+ * current request can still be cached.
+ */
+@FunctionalInterface
+public interface ChaosToggleContextProvider {
+
+  /** @return key of the current context, or {@code null} if the decision is context free */
+  String currentContext();
+}
@@ -1,20 +1,31 @@
 package de.codecentric.spring.boot.chaos.monkey.configuration.toggles;
 
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import java.util.EnumMap;
+import java.util.Map;
 
 public class DefaultChaosToggleNameMapper implements ChaosToggleNameMapper {
   protected final String togglePrefix;
 
+  // the default names only depend on the target, so they are built once
+  private final Map<ChaosTarget, String> toggleNames = new EnumMap<>(ChaosTarget.class);
+
+  private final String unknownToggleName;
+
   public DefaultChaosToggleNameMapper(String togglePrefix) {
     this.togglePrefix = togglePrefix;
+    for (ChaosTarget target : ChaosTarget.values()) {
+      toggleNames.put(target, togglePrefix + "." + target.getName());
+    }
+    this.unknownToggleName = togglePrefix + ".unknown";
   }
 
   @Override
   public String mapName(ChaosTarget type, String name) {
     if (type == null) {
-      return togglePrefix + ".unknown";
+      return unknownToggleName;
     }
 
-    return togglePrefix + "." + type.getName();
+    return toggleNames.get(type);
   }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration.toggles;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Toggles kept in memory, e.g. as a local stand-in for a feature flag service in tests or during
+ * development. Toggles that have not been set return the default value.
+ */
+public class InMemoryChaosToggles implements ChaosToggles {
+
+  private final Map<String, Boolean> toggles = new ConcurrentHashMap<>();
+
+  private final boolean enabledByDefault;
+
+  public InMemoryChaosToggles() {
+    this(false);
+  }
+
+  public InMemoryChaosToggles(boolean enabledByDefault) {
+    this.enabledByDefault = enabledByDefault;
+  }
+
+  public void enable(String toggleName) {
+    toggles.put(toggleName, true);
+  }
+
+  public void disable(String toggleName) {
+    toggles.put(toggleName, false);
+  }
+
+  public void reset() {
+    toggles.clear();
+  }
+
+  @Override
+  public boolean isEnabled(String toggleName) {
+    return toggles.getOrDefault(toggleName, enabledByDefault);
+  }
+}
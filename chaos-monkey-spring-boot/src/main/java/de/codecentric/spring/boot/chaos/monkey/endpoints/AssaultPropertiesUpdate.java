@@ -4,8 +4,11 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultException;
 import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultExceptionConstraint;
 import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.LatencyDistributionType;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFault;
 import java.util.List;
 import java.util.function.Consumer;
+import javax.validation.Valid;
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
@@ -41,10 +44,42 @@ public class AssaultPropertiesUpdate {
 
   @Nullable private Boolean latencyActive;
 
+  @Nullable private LatencyDistributionType latencyDistribution;
+
+  @Nullable
+  @DecimalMax("1.0")
+  @DecimalMin("0.0")
+  private Double latencyBimodalSlowRatio;
+
+  @Nullable private String latencyHistogramLocation;
+
+  @Nullable
+  @Min(value = 0)
+  @Max(value = 10000)
+  private Integer latencyQueueCapacity;
+
+  @Nullable private Boolean latencyBurnCpu;
+
   @Nullable private Boolean exceptionsActive;
 
   @AssaultExceptionConstraint private AssaultException exception;
 
+  @Nullable @Valid private List<OutgoingFault> outgoingFaults;
+
+  @Nullable private Boolean bandwidthActive;
+
+  @Nullable
+  @Min(value = 1)
+  @Max(value = Integer.MAX_VALUE)
+  private Integer bandwidthBytesPerSecond;
+
+  @Nullable private Boolean hangActive;
+
+  @Nullable
+  @Min(value = 1)
+  @Max(value = Integer.MAX_VALUE)
+  private Integer hangTimeout;
+
   @Nullable private Boolean killApplicationActive;
 
   @Nullable private volatile Boolean memoryActive;
@@ -84,9 +119,20 @@ public class AssaultPropertiesUpdate {
     applyTo(latencyActive, t::setLatencyActive);
     applyTo(latencyRangeStart, t::setLatencyRangeStart);
     applyTo(latencyRangeEnd, t::setLatencyRangeEnd);
+    applyTo(latencyDistribution, t::setLatencyDistribution);
+    applyTo(latencyBimodalSlowRatio, t::setLatencyBimodalSlowRatio);
+    applyTo(latencyHistogramLocation, t::setLatencyHistogramLocation);
+    applyTo(latencyQueueCapacity, t::setLatencyQueueCapacity);
+    applyTo(latencyBurnCpu, t::setLatencyBurnCpu);
 
     applyTo(exceptionsActive, t::setExceptionsActive);
     applyTo(exception, t::setException);
+    applyTo(outgoingFaults, t::setOutgoingFaults);
+
+    applyTo(bandwidthActive, t::setBandwidthActive);
+    applyTo(bandwidthBytesPerSecond, t::setBandwidthBytesPerSecond);
+    applyTo(hangActive, t::setHangActive);
+    applyTo(hangTimeout, t::setHangTimeout);
 
     applyTo(killApplicationActive, t::setKillApplicationActive);
 
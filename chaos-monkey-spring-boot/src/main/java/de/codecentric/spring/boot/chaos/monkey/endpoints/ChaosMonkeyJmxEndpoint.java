@@ -16,6 +16,8 @@
 
 package de.codecentric.spring.boot.chaos.monkey.endpoints;
 
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
 import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
@@ -28,8 +30,12 @@ public class ChaosMonkeyJmxEndpoint {
 
   private final ChaosMonkeySettings chaosMonkeySettings;
 
-  public ChaosMonkeyJmxEndpoint(ChaosMonkeySettings chaosMonkeySettings) {
+  private final ChaosMonkeyRequestScope requestScope;
+
+  public ChaosMonkeyJmxEndpoint(
+      ChaosMonkeySettings chaosMonkeySettings, ChaosMonkeyRequestScope requestScope) {
     this.chaosMonkeySettings = chaosMonkeySettings;
+    this.requestScope = requestScope;
   }
 
   @ReadOperation
@@ -39,25 +45,31 @@ public class ChaosMonkeyJmxEndpoint {
 
   @WriteOperation
   public String toggleLatencyAssault() {
-    this.chaosMonkeySettings
-        .getAssaultProperties()
-        .setLatencyActive(!this.getAssaultProperties().getLatencyActive());
+    this.requestScope.updateConfig(
+        settings -> {
+          AssaultProperties assaultProperties = settings.getAssaultProperties();
+          assaultProperties.setLatencyActive(!assaultProperties.isLatencyActive());
+        });
     return String.valueOf(this.getAssaultProperties().getLatencyActive());
   }
 
   @WriteOperation
   public String toggleExceptionAssault() {
-    this.chaosMonkeySettings
-        .getAssaultProperties()
-        .setExceptionsActive(!this.getAssaultProperties().getExceptionsActive());
+    this.requestScope.updateConfig(
+        settings -> {
+          AssaultProperties assaultProperties = settings.getAssaultProperties();
+          assaultProperties.setExceptionsActive(!assaultProperties.isExceptionsActive());
+        });
     return String.valueOf(this.getAssaultProperties().getExceptionsActive());
   }
 
   @WriteOperation
   public String toggleKillApplicationAssault() {
-    this.chaosMonkeySettings
-        .getAssaultProperties()
-        .setKillApplicationActive(!this.getAssaultProperties().getKillApplicationActive());
+    this.requestScope.updateConfig(
+        settings -> {
+          AssaultProperties assaultProperties = settings.getAssaultProperties();
+          assaultProperties.setKillApplicationActive(!assaultProperties.isKillApplicationActive());
+        });
     return String.valueOf(this.getAssaultProperties().getKillApplicationActive());
   }
 
@@ -68,13 +80,16 @@ public class ChaosMonkeyJmxEndpoint {
 
   @WriteOperation
   public String enableChaosMonkey() {
-    this.chaosMonkeySettings.getChaosMonkeyProperties().setEnabled(true);
+    this.requestScope.updateConfig(
+        settings -> settings.getChaosMonkeyProperties().setEnabled(true));
     return "Chaos Monkey is enabled";
   }
 
   @WriteOperation
   public String disableChaosMonkey() {
-    this.chaosMonkeySettings.getChaosMonkeyProperties().setEnabled(false);
+    // ends running latency assaults
+    this.requestScope.updateConfig(
+        settings -> settings.getChaosMonkeyProperties().setEnabled(false));
     return "Chaos Monkey is disabled";
   }
 
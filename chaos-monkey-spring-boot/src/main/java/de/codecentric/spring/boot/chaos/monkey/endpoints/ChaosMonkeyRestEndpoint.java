@@ -16,10 +16,15 @@
 
 package de.codecentric.spring.boot.chaos.monkey.endpoints;
 
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMetricsSink;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRuntimeScope;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyScheduler;
+import de.codecentric.spring.boot.chaos.monkey.component.WatchedComponentCount;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import java.util.Collections;
+import java.util.List;
 import org.springframework.boot.actuate.endpoint.web.annotation.RestControllerEndpoint;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -33,23 +38,32 @@ public class ChaosMonkeyRestEndpoint {
 
   private final ChaosMonkeySettings chaosMonkeySettings;
 
+  private final ChaosMonkeyRequestScope requestScope;
+
   private final ChaosMonkeyRuntimeScope runtimeScope;
 
   private final ChaosMonkeyScheduler scheduler;
 
+  private final ChaosMetricsSink metricsSink;
+
   public ChaosMonkeyRestEndpoint(
       ChaosMonkeySettings chaosMonkeySettings,
+      ChaosMonkeyRequestScope requestScope,
       ChaosMonkeyRuntimeScope runtimeScope,
-      ChaosMonkeyScheduler scheduler) {
+      ChaosMonkeyScheduler scheduler,
+      ChaosMetricsSink metricsSink) {
     this.chaosMonkeySettings = chaosMonkeySettings;
+    this.requestScope = requestScope;
     this.runtimeScope = runtimeScope;
     this.scheduler = scheduler;
+    this.metricsSink = metricsSink;
   }
 
   @PostMapping("/assaults")
   public ResponseEntity<String> updateAssaultProperties(
       @RequestBody @Validated AssaultPropertiesUpdate assaultProperties) {
-    assaultProperties.applyTo(chaosMonkeySettings.getAssaultProperties());
+    requestScope.updateConfig(
+        settings -> assaultProperties.applyTo(settings.getAssaultProperties()));
     scheduler.reloadConfig();
     return ResponseEntity.ok().body("Assault config has changed");
   }
@@ -67,13 +81,16 @@ public class ChaosMonkeyRestEndpoint {
 
   @PostMapping("/enable")
   public ResponseEntity<String> enableChaosMonkey() {
-    this.chaosMonkeySettings.getChaosMonkeyProperties().setEnabled(true);
+    this.requestScope.updateConfig(
+        settings -> settings.getChaosMonkeyProperties().setEnabled(true));
     return ResponseEntity.ok().body("Chaos Monkey is enabled");
   }
 
   @PostMapping("/disable")
   public ResponseEntity<String> disableChaosMonkey() {
-    this.chaosMonkeySettings.getChaosMonkeyProperties().setEnabled(false);
+    // ends running latency assaults
+    this.requestScope.updateConfig(
+        settings -> settings.getChaosMonkeyProperties().setEnabled(false));
     return ResponseEntity.ok().body("Chaos Monkey is disabled");
   }
 
@@ -94,7 +111,8 @@ public class ChaosMonkeyRestEndpoint {
   @PostMapping("/watchers")
   public ResponseEntity<String> updateWatcherProperties(
       @RequestBody @Validated WatcherPropertiesUpdate watcherProperties) {
-    watcherProperties.applyTo(chaosMonkeySettings.getWatcherProperties());
+    requestScope.updateConfig(
+        settings -> watcherProperties.applyTo(settings.getWatcherProperties()));
     scheduler.reloadConfig();
 
     return ResponseEntity.ok().body("Watcher config has changed");
@@ -104,4 +122,12 @@ public class ChaosMonkeyRestEndpoint {
   public WatcherProperties getWatcherSettings() {
     return this.chaosMonkeySettings.getWatcherProperties();
   }
+
+  @GetMapping("/watchers/components")
+  public List<WatchedComponentCount> getWatchedComponents() {
+    if (metricsSink == null) {
+      return Collections.emptyList();
+    }
+    return metricsSink.getWatchedComponentCounts();
+  }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+/**
+ * Adds latency to the asynchronous results of watched methods, so the thread calling the method,
+ * often a servlet container thread, is not blocked while waiting. All latencies end early when
+ * Chaos Monkey is disabled or the latency is changed, like those of {@link
+ * LatencyAssault#attack()}.
+ *
+ * <ul>
+ *   <li>a {@link CompletionStage} completes later, scheduled on the timer thread of the {@link
+ *       LatencyAssault}. It is completed on the default async executor of {@link
+ *       CompletableFuture}, so dependent actions don't run on the timer thread and delay other
+ *       results
+ *   <li>a {@link Callable} waits through the executor of the {@link LatencyAssault} before it is
+ *       called, on the async executor of Spring MVC
+ *   <li>a {@link DeferredResult} or {@link WebAsyncTask} is returned as it is, so its timeout and
+ *       callbacks stay in force. The latency is added by an interceptor registered for the current
+ *       request: the thread that sets the result of a {@link DeferredResult}, its timeout result
+ *       included, waits before Spring MVC gets the result, the callable of a {@link WebAsyncTask}
+ *       waits before it is called.
+ *       Outside of a request they are delayed before they are returned
+ * </ul>
+ */
+public final class AsyncAssaults {
+
+  private AsyncAssaults() {}
+
+  /**
+   * @param result a {@link CompletionStage}, {@link Callable}, {@link DeferredResult} or {@link
+   *     WebAsyncTask}, may be null
+   * @param assault the assault the latency was prepared by, waits for it
+   * @param latency latency in milliseconds
+   * @return the delayed result, of the same type as the given one, null for null
+   */
+  public static Object delay(Object result, LatencyAssault assault, int latency) {
+    if (result instanceof CompletionStage) {
+      return delay((CompletionStage<?>) result, assault, latency);
+    }
+    if (result instanceof Callable) {
+      return delay((Callable<?>) result, assault, latency);
+    }
+    if (result == null) {
+      return null;
+    }
+    // only loaded for Spring MVC results, spring-web is optional
+    return MvcResults.delay(result, assault, latency);
+  }
+
+  private static CompletableFuture<Object> delay(
+      CompletionStage<?> stage, LatencyAssault assault, int latency) {
+    CompletableFuture<Object> delayed = new CompletableFuture<>();
+    stage.whenComplete(
+        (value, error) ->
+            assault.schedule(
+                () ->
+                    CompletableFuture.runAsync(
+                        () -> {
+                          if (error != null) {
+                            delayed.completeExceptionally(error);
+                          } else {
+                            delayed.complete(value);
+                          }
+                        }),
+                latency));
+    if (stage instanceof CompletableFuture) {
+      delayed.whenComplete(
+          (value, error) -> {
+            if (delayed.isCancelled()) {
+              ((CompletableFuture<?>) stage).cancel(false);
+            }
+          });
+    }
+    return delayed;
+  }
+
+  private static <V> Callable<V> delay(Callable<V> callable, LatencyAssault assault, int latency) {
+    return () -> {
+      await(assault, latency);
+      return callable.call();
+    };
+  }
+
+  private static void await(LatencyAssault assault, int latency) throws InterruptedException {
+    assault.delay(latency);
+    // the executor returns early when interrupted, e.g. by a timeout of Spring MVC
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  private static final class MvcResults {
+
+    static Object delay(Object result, LatencyAssault assault, int latency) {
+      if (!(result instanceof DeferredResult) && !(result instanceof WebAsyncTask)) {
+        return result;
+      }
+      WebAsyncManager asyncManager = currentAsyncManager();
+      if (asyncManager == null) {
+        // not handled by Spring MVC, there is nothing to intercept
+        assault.delay(latency);
+        return result;
+      }
+      // the interceptors of a request are kept by key, a result can pass several watched methods
+      String key = AsyncAssaults.class.getName() + "." + System.identityHashCode(result);
+      if (result instanceof DeferredResult) {
+        asyncManager.registerDeferredResultInterceptor(
+            key, new DeferredResultDelay((DeferredResult<?>) result, assault, latency));
+      } else {
+        asyncManager.registerCallableInterceptor(
+            key, new CallableDelay(((WebAsyncTask<?>) result).getCallable(), assault, latency));
+      }
+      return result;
+    }
+
+    private static WebAsyncManager currentAsyncManager() {
+      RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+      return attributes instanceof ServletRequestAttributes
+          ? WebAsyncUtils.getAsyncManager(((ServletRequestAttributes) attributes).getRequest())
+          : null;
+    }
+  }
+
+  /** Lets the thread setting the result wait before Spring MVC gets it. */
+  private static final class DeferredResultDelay implements DeferredResultProcessingInterceptor {
+
+    private final DeferredResult<?> deferredResult;
+
+    private final LatencyAssault assault;
+
+    private final int latency;
+
+    private DeferredResultDelay(
+        DeferredResult<?> deferredResult, LatencyAssault assault, int latency) {
+      this.deferredResult = deferredResult;
+      this.assault = assault;
+      this.latency = latency;
+    }
+
+    @Override
+    public <T> void postProcess(
+        NativeWebRequest request, DeferredResult<T> result, Object concurrentResult)
+        throws InterruptedException {
+      if (result == deferredResult) {
+        await(assault, latency);
+      }
+    }
+  }
+
+  /** Lets the async executor of Spring MVC wait before the callable is called. */
+  private static final class CallableDelay implements CallableProcessingInterceptor {
+
+    private final Callable<?> callable;
+
+    private final LatencyAssault assault;
+
+    private final int latency;
+
+    private CallableDelay(Callable<?> callable, LatencyAssault assault, int latency) {
+      this.callable = callable;
+      this.assault = assault;
+      this.latency = latency;
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task)
+        throws InterruptedException {
+      if (task == callable) {
+        await(assault, latency);
+      }
+    }
+  }
+}
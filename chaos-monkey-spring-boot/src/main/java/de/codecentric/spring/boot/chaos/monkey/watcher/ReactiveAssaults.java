@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.BandwidthAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.HangAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import java.time.Duration;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs request assaults inside a Reactor pipeline. The assault is chosen when the returned {@link
+ * Mono} is subscribed, not when it is assembled, and the subscribing thread, often an event loop,
+ * is never blocked:
+ *
+ * <ul>
+ *   <li>a {@link LatencyAssault} becomes a {@link Mono#delay(Duration) delay} on the parallel
+ *       scheduler
+ *   <li>an {@link ExceptionAssault} becomes an error signal
+ *   <li>a {@link BandwidthAssault} or {@link HangAssault} is skipped, they are only chosen for
+ *       outgoing requests and the watchers of these run them themselves
+ *   <li>any other assault may block, so it runs on the bounded elastic scheduler
+ * </ul>
+ */
+public final class ReactiveAssaults {
+
+  private ReactiveAssaults() {}
+
+  /**
+   * @return completes when the watched call may proceed, or signals the exception of an exception
+   *     assault
+   */
+  public static Mono<Void> attack(
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope, ChaosTarget type, String simpleName) {
+    return Mono.defer(
+        () -> attack(chaosMonkeyRequestScope.selectAssault(type, simpleName), type, simpleName));
+  }
+
+  /**
+   * Runs an assault the watcher has already selected, for watchers that handle some assaults
+   * themselves.
+   *
+   * @param assault the selected assault, null if the call is not attacked
+   * @return completes when the watched call may proceed, or signals the exception of an exception
+   *     assault
+   */
+  public static Mono<Void> attack(
+      ChaosMonkeyRequestAssault assault, ChaosTarget type, String simpleName) {
+    if (assault == null || assault instanceof BandwidthAssault || assault instanceof HangAssault) {
+      return Mono.empty();
+    }
+    if (assault instanceof LatencyAssault) {
+      return Mono.delay(
+              Duration.ofMillis(((LatencyAssault) assault).prepareAttack(type, simpleName)))
+          .then();
+    }
+    Mono<Void> attack = Mono.fromRunnable(assault::attack);
+    return assault instanceof ExceptionAssault
+        ? attack
+        : attack.subscribeOn(Schedulers.boundedElastic());
+  }
+
+  /**
+   * Attacks a publisher returned by a watched method when it is subscribed. It is typed as {@code
+   * Object}, so callers don't load Reactor before they know it is used.
+   *
+   * @param publisher a {@link Mono}, a {@link Flux} or another {@link Publisher}, may be null
+   * @return a {@link Mono} for a {@link Mono}, a {@link Flux} otherwise, null for null
+   */
+  public static Object attack(
+      Object publisher,
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope,
+      ChaosTarget type,
+      String simpleName) {
+    if (publisher == null) {
+      return null;
+    }
+    Mono<Void> attack = attack(chaosMonkeyRequestScope, type, simpleName);
+    if (publisher instanceof Mono) {
+      return attack.then((Mono<?>) publisher);
+    }
+    return attack.thenMany((Publisher<?>) publisher);
+  }
+}
@@ -16,12 +16,82 @@
 
 package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
 
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.watcher.AsyncAssaults;
+import de.codecentric.spring.boot.chaos.monkey.watcher.ReactiveAssaults;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.util.ClassUtils;
 
 /** @author Benjamin Wilms */
 abstract class ChaosMonkeyBaseAspect {
 
+  // all watchers off, used until an aspect woven at build time is bound to the application context
+  private static final WatcherProperties NOTHING_WATCHED = new WatcherProperties();
+
+  private static final boolean REACTOR_PRESENT =
+      ClassUtils.isPresent(
+          "reactor.core.publisher.Mono", ChaosMonkeyBaseAspect.class.getClassLoader());
+
+  // by name, so Reactor is only loaded if it is used by the application
+  private static final Set<String> PUBLISHER_TYPES =
+      new HashSet<>(
+          Arrays.asList(
+              "reactor.core.publisher.Mono",
+              "reactor.core.publisher.Flux",
+              "org.reactivestreams.Publisher"));
+
+  private static final Set<String> ASYNC_TYPES =
+      new HashSet<>(
+          Arrays.asList(
+              "java.util.concurrent.CompletableFuture",
+              "java.util.concurrent.CompletionStage",
+              "java.util.concurrent.Callable",
+              "org.springframework.web.context.request.async.DeferredResult",
+              "org.springframework.web.context.request.async.WebAsyncTask"));
+
+  private final Map<Method, WatchedMethod> watchedMethods = new ConcurrentHashMap<>();
+
+  // not final, AspectJ creates aspects woven at build time itself, see WovenAspects
+  ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+
+  MetricEventPublisher metricEventPublisher;
+
+  volatile WatcherProperties watcherProperties;
+
+  ChaosMonkeyBaseAspect() {
+    this(null, null, NOTHING_WATCHED);
+  }
+
+  ChaosMonkeyBaseAspect(
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope,
+      MetricEventPublisher metricEventPublisher,
+      WatcherProperties watcherProperties) {
+    this.chaosMonkeyRequestScope = chaosMonkeyRequestScope;
+    this.metricEventPublisher = metricEventPublisher;
+    this.watcherProperties = watcherProperties;
+  }
+
+  /** Takes over the dependencies of an aspect that was created by the application context. */
+  void bindTo(ChaosMonkeyBaseAspect configured) {
+    this.chaosMonkeyRequestScope = configured.chaosMonkeyRequestScope;
+    this.metricEventPublisher = configured.metricEventPublisher;
+    // volatile write last, so a watcher that is switched on also sees the scope
+    this.watcherProperties = configured.watcherProperties;
+  }
+
   @Pointcut("within(de.codecentric.spring.boot.chaos.monkey..*)")
   public void classInChaosMonkeyPackage() {}
 
@@ -32,6 +102,37 @@ abstract class ChaosMonkeyBaseAspect {
       "execution(* postProcess*Initialization(..)) || (execution(* onApplicationEvent(..)) && !execution(* onApplicationEvent(org.springframework.web.context.support.RequestHandledEvent))) || execution(* org.springframework.beans.factory.FactoryBean+.*(..))")
   public void springHooksPointcut() {}
 
+  /**
+   * Runs the assault for a watched call and proceeds with it. Publishers returned by the call are
+   * attacked when they are subscribed instead, see {@link ReactiveAssaults}, so their latency is a
+   * delay and their exception an error signal. Asynchronous results like a {@code
+   * CompletableFuture} get their latency without blocking the calling thread, see {@link
+   * AsyncAssaults}.
+   */
+  Object attack(ProceedingJoinPoint pjp, ChaosTarget type, WatchedMethod watchedMethod)
+      throws Throwable {
+    switch (watchedMethod.getResultType()) {
+      case PUBLISHER:
+        return ReactiveAssaults.attack(
+            pjp.proceed(), chaosMonkeyRequestScope, type, watchedMethod.getSignature());
+      case ASYNC:
+        ChaosMonkeyRequestAssault assault =
+            chaosMonkeyRequestScope.selectAssault(type, watchedMethod.getSignature());
+        if (assault instanceof LatencyAssault) {
+          int latency =
+              ((LatencyAssault) assault).prepareAttack(type, watchedMethod.getSignature());
+          return AsyncAssaults.delay(pjp.proceed(), (LatencyAssault) assault, latency);
+        }
+        if (assault != null) {
+          assault.attack(type, watchedMethod.getSignature());
+        }
+        return pjp.proceed();
+      default:
+        chaosMonkeyRequestScope.callChaosMonkey(type, watchedMethod.getSignature());
+        return pjp.proceed();
+    }
+  }
+
   String calculatePointcut(String target) {
     return target.replaceAll("\\(\\)", "").replaceAll("\\)", "").replaceAll("\\(", ".");
   }
@@ -39,4 +140,73 @@ abstract class ChaosMonkeyBaseAspect {
   String createSignature(MethodSignature signature) {
     return signature.getDeclaringTypeName() + "." + signature.getMethod().getName();
   }
+
+  /**
+   * Returns the names used for the intercepted method. They are built the first time a method is
+   * seen and reused afterwards, so intercepting a known method does not build any strings.
+   */
+  WatchedMethod watchedMethod(ProceedingJoinPoint pjp) {
+    MethodSignature signature = (MethodSignature) pjp.getSignature();
+    Method method = signature.getMethod();
+    // plain get first, computeIfAbsent locks the bin on Java 8 even if the key is present
+    WatchedMethod watchedMethod = watchedMethods.get(method);
+    if (watchedMethod == null) {
+      watchedMethod =
+          watchedMethods.computeIfAbsent(
+              method,
+              key ->
+                  new WatchedMethod(
+                      createSignature(signature).intern(),
+                      calculatePointcut(pjp.toShortString()).intern(),
+                      resultType(method.getReturnType())));
+    }
+    return watchedMethod;
+  }
+
+  private static ResultType resultType(Class<?> returnType) {
+    String name = returnType.getName();
+    if (REACTOR_PRESENT && PUBLISHER_TYPES.contains(name)) {
+      return ResultType.PUBLISHER;
+    }
+    return ASYNC_TYPES.contains(name) ? ResultType.ASYNC : ResultType.PLAIN;
+  }
+
+  enum ResultType {
+    /** attacked before the call */
+    PLAIN,
+    /** a Reactor publisher, attacked when it is subscribed */
+    PUBLISHER,
+    /** a future or a Spring MVC async result, completed later on latency */
+    ASYNC
+  }
+
+  static final class WatchedMethod {
+
+    private final String signature;
+
+    private final String pointcut;
+
+    private final ResultType resultType;
+
+    private WatchedMethod(String signature, String pointcut, ResultType resultType) {
+      this.signature = signature;
+      this.pointcut = pointcut;
+      this.resultType = resultType;
+    }
+
+    /** @return declaring type and method name, used for toggles and watched custom services */
+    String getSignature() {
+      return signature;
+    }
+
+    /** @return short pointcut name, used for the watcher metrics */
+    String getPointcut() {
+      return pointcut;
+    }
+
+    /** @return how the result of the method is attacked */
+    ResultType getResultType() {
+      return resultType;
+    }
+  }
 }
@@ -21,25 +21,26 @@ import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
 
 /** @author Benjamin Wilms */
 @Aspect
-@AllArgsConstructor
 @Slf4j
 public class SpringComponentAspect extends ChaosMonkeyBaseAspect {
 
-  private final ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+  /** Used by AspectJ for aspects woven at build time, see {@link WovenAspects}. */
+  public SpringComponentAspect() {}
 
-  private MetricEventPublisher metricEventPublisher;
-
-  private WatcherProperties watcherProperties;
+  public SpringComponentAspect(
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope,
+      MetricEventPublisher metricEventPublisher,
+      WatcherProperties watcherProperties) {
+    super(chaosMonkeyRequestScope, metricEventPublisher, watcherProperties);
+  }
 
   @Pointcut("within(@org.springframework.stereotype.Component *)")
   public void classAnnotatedWithComponentPointcut() {}
@@ -51,17 +52,16 @@ public class SpringComponentAspect extends ChaosMonkeyBaseAspect {
       "classAnnotatedWithComponentPointcut() && !classInSpringCloudContextPackage() "
           + "&& allPublicMethodPointcut() && !classInChaosMonkeyPackage() && !springHooksPointcut()")
   public Object intercept(ProceedingJoinPoint pjp) throws Throwable {
-    if (watcherProperties.isComponent()) {
+    if (watcherProperties.isComponent() && chaosMonkeyRequestScope.isEnabled()) {
       log.debug("Watching public method on component class: {}", pjp.getSignature());
 
+      WatchedMethod watchedMethod = watchedMethod(pjp);
+
       if (metricEventPublisher != null) {
-        metricEventPublisher.publishMetricEvent(
-            calculatePointcut(pjp.toShortString()), MetricType.COMPONENT);
+        metricEventPublisher.publishMetricEvent(watchedMethod.getPointcut(), MetricType.COMPONENT);
       }
 
-      MethodSignature signature = (MethodSignature) pjp.getSignature();
-
-      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.COMPONENT, createSignature(signature));
+      return attack(pjp, ChaosTarget.COMPONENT, watchedMethod);
     }
     return pjp.proceed();
   }
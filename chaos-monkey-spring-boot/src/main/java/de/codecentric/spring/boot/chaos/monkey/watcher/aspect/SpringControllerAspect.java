@@ -21,25 +21,26 @@ import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
 
 /** @author Benjamin Wilms */
 @Aspect
-@AllArgsConstructor
 @Slf4j
 public class SpringControllerAspect extends ChaosMonkeyBaseAspect {
 
-  private final ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+  /** Used by AspectJ for aspects woven at build time, see {@link WovenAspects}. */
+  public SpringControllerAspect() {}
 
-  private MetricEventPublisher metricEventPublisher;
-
-  private WatcherProperties watcherProperties;
+  public SpringControllerAspect(
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope,
+      MetricEventPublisher metricEventPublisher,
+      WatcherProperties watcherProperties) {
+    super(chaosMonkeyRequestScope, metricEventPublisher, watcherProperties);
+  }
 
   @Pointcut("within(@org.springframework.stereotype.Controller *)")
   public void classAnnotatedWithControllerPointcut() {}
@@ -48,17 +49,16 @@ public class SpringControllerAspect extends ChaosMonkeyBaseAspect {
       "classAnnotatedWithControllerPointcut() && allPublicMethodPointcut() && !classInChaosMonkeyPackage()")
   public Object intercept(ProceedingJoinPoint pjp) throws Throwable {
 
-    if (watcherProperties.isController()) {
+    if (watcherProperties.isController() && chaosMonkeyRequestScope.isEnabled()) {
       log.debug("Watching public method on controller class: {}", pjp.getSignature());
 
+      WatchedMethod watchedMethod = watchedMethod(pjp);
+
       if (metricEventPublisher != null) {
-        metricEventPublisher.publishMetricEvent(
-            calculatePointcut(pjp.toShortString()), MetricType.CONTROLLER);
+        metricEventPublisher.publishMetricEvent(watchedMethod.getPointcut(), MetricType.CONTROLLER);
       }
 
-      MethodSignature signature = (MethodSignature) pjp.getSignature();
-
-      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.CONTROLLER, createSignature(signature));
+      return attack(pjp, ChaosTarget.CONTROLLER, watchedMethod);
     }
     return pjp.proceed();
   }
@@ -21,25 +21,26 @@ import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
 
 /** @author Eric Wyles */
 @Aspect
-@AllArgsConstructor
 @Slf4j
 public class SpringRepositoryAspectJDBC extends ChaosMonkeyBaseAspect {
 
-  private final ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+  /** Used by AspectJ for aspects woven at build time, see {@link WovenAspects}. */
+  public SpringRepositoryAspectJDBC() {}
 
-  private MetricEventPublisher metricEventPublisher;
-
-  private WatcherProperties watcherProperties;
+  public SpringRepositoryAspectJDBC(
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope,
+      MetricEventPublisher metricEventPublisher,
+      WatcherProperties watcherProperties) {
+    super(chaosMonkeyRequestScope, metricEventPublisher, watcherProperties);
+  }
 
   @Pointcut("within(@org.springframework.stereotype.Repository *)")
   public void classAnnotatedWithRepositoryPointcut() {}
@@ -48,17 +49,16 @@ public class SpringRepositoryAspectJDBC extends ChaosMonkeyBaseAspect {
       "classAnnotatedWithRepositoryPointcut() && allPublicMethodPointcut() && !classInChaosMonkeyPackage()")
   public Object intercept(ProceedingJoinPoint pjp) throws Throwable {
 
-    if (watcherProperties.isRepository()) {
+    if (watcherProperties.isRepository() && chaosMonkeyRequestScope.isEnabled()) {
       log.debug("Watching public method on repository stereotype class: {}", pjp.getSignature());
 
+      WatchedMethod watchedMethod = watchedMethod(pjp);
+
       if (metricEventPublisher != null) {
-        metricEventPublisher.publishMetricEvent(
-            calculatePointcut(pjp.toShortString()), MetricType.REPOSITORY);
+        metricEventPublisher.publishMetricEvent(watchedMethod.getPointcut(), MetricType.REPOSITORY);
       }
 
-      MethodSignature signature = (MethodSignature) pjp.getSignature();
-
-      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.REPOSITORY, createSignature(signature));
+      return attack(pjp, ChaosTarget.REPOSITORY, watchedMethod);
     }
     return pjp.proceed();
   }
@@ -21,25 +21,26 @@ import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
 
 /** @author Benjamin Wilms */
 @Aspect
-@AllArgsConstructor
 @Slf4j
 public class SpringRestControllerAspect extends ChaosMonkeyBaseAspect {
 
-  private final ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+  /** Used by AspectJ for aspects woven at build time, see {@link WovenAspects}. */
+  public SpringRestControllerAspect() {}
 
-  private MetricEventPublisher metricEventPublisher;
-
-  private WatcherProperties watcherProperties;
+  public SpringRestControllerAspect(
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope,
+      MetricEventPublisher metricEventPublisher,
+      WatcherProperties watcherProperties) {
+    super(chaosMonkeyRequestScope, metricEventPublisher, watcherProperties);
+  }
 
   @Pointcut("within(@org.springframework.web.bind.annotation.RestController *)")
   public void classAnnotatedWithControllerPointcut() {}
@@ -48,18 +49,17 @@ public class SpringRestControllerAspect extends ChaosMonkeyBaseAspect {
       "classAnnotatedWithControllerPointcut() && allPublicMethodPointcut() && !classInChaosMonkeyPackage()")
   public Object intercept(ProceedingJoinPoint pjp) throws Throwable {
 
-    if (watcherProperties.isRestController()) {
+    if (watcherProperties.isRestController() && chaosMonkeyRequestScope.isEnabled()) {
       log.debug("Watching public method on rest controller class: {}", pjp.getSignature());
 
+      WatchedMethod watchedMethod = watchedMethod(pjp);
+
       if (metricEventPublisher != null) {
         metricEventPublisher.publishMetricEvent(
-            calculatePointcut(pjp.toShortString()), MetricType.RESTCONTROLLER);
+            watchedMethod.getPointcut(), MetricType.RESTCONTROLLER);
       }
 
-      MethodSignature signature = (MethodSignature) pjp.getSignature();
-
-      chaosMonkeyRequestScope.callChaosMonkey(
-          ChaosTarget.REST_CONTROLLER, createSignature(signature));
+      return attack(pjp, ChaosTarget.REST_CONTROLLER, watchedMethod);
     }
     return pjp.proceed();
   }
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
+
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.annotation.AspectMetadata;
+import org.springframework.aop.aspectj.annotation.MetadataAwareAspectInstanceFactory;
+import org.springframework.aop.aspectj.annotation.ReflectiveAspectJAdvisorFactory;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.Ordered;
+
+/**
+ * Applies a watcher aspect through Spring AOP. Unlike an aspect bean, which proxies every bean its
+ * pointcut matches, proxies are only created for beans that
+ *
+ * <ul>
+ *   <li>are part of the {@code chaos.monkey.watcher.include-packages} and not part of the {@code
+ *       exclude-packages} and
+ *   <li>are created while the watcher is enabled, if {@code
+ *       chaos.monkey.watcher.proxy-only-enabled} is set.
+ * </ul>
+ *
+ * By default the beans of disabled watchers are proxied too, so a watcher can be switched on at
+ * runtime. With {@code proxy-only-enabled} a watcher switched on at runtime only watches beans
+ * created for the first time afterwards, e.g. lazy beans. Beans that are already proxied stay
+ * watched, the watcher itself decides on every call whether it is enabled.
+ *
+ * <p>If the aspect was {@link WovenAspects woven at build time}, the advisor creates no proxies and
+ * binds the woven aspect once all singletons are instantiated.
+ */
+public final class WatcherAdvisor extends AbstractPointcutAdvisor
+    implements SmartInitializingSingleton {
+
+  private static final ReflectiveAspectJAdvisorFactory ADVISOR_FACTORY =
+      new ReflectiveAspectJAdvisorFactory();
+
+  private final Runnable bindWoven;
+
+  private final WatcherProperties watcherProperties;
+
+  private final Predicate<WatcherProperties> watcherEnabled;
+
+  private final boolean packageScoped;
+
+  // types advised once stay advised, the advice chain of a proxy is also built with this filter
+  private final Set<Class<?>> advisedTypes = ConcurrentHashMap.newKeySet();
+
+  private final Pointcut pointcut;
+
+  private final Advice advice;
+
+  /**
+   * @param aspectType type of the watcher aspect
+   * @param aspect creates the aspect, called on the first watched call, or once all singletons are
+   *     instantiated if the aspect was woven at build time
+   * @param watcherProperties current watcher settings
+   * @param watcherEnabled whether the watcher is enabled in the given settings
+   * @param packageScoped whether the watcher is limited to the included and excluded packages
+   */
+  public <T> WatcherAdvisor(
+      Class<T> aspectType,
+      Supplier<? extends T> aspect,
+      WatcherProperties watcherProperties,
+      Predicate<WatcherProperties> watcherEnabled,
+      boolean packageScoped) {
+    this.watcherProperties = watcherProperties;
+    this.watcherEnabled = watcherEnabled;
+    this.packageScoped = packageScoped;
+    if (WovenAspects.isWoven(aspectType)) {
+      this.bindWoven = () -> WovenAspects.bind(aspectType, aspect.get());
+      // the woven aspect intercepts the calls itself
+      this.pointcut = new ComposablePointcut((ClassFilter) type -> false, MethodMatcher.TRUE);
+      this.advice = (MethodInterceptor) MethodInvocation::proceed;
+    } else {
+      // every watcher aspect declares a single around advice
+      PointcutAdvisor advisor =
+          (PointcutAdvisor)
+              ADVISOR_FACTORY
+                  .getAdvisors(new ConfiguredAspectInstanceFactory(aspectType, aspect))
+                  .get(0);
+      this.bindWoven = () -> {};
+      this.pointcut =
+          new ComposablePointcut(advisor.getPointcut()).intersection((ClassFilter) this::advises);
+      this.advice = advisor.getAdvice();
+    }
+  }
+
+  @Override
+  public Pointcut getPointcut() {
+    return pointcut;
+  }
+
+  @Override
+  public Advice getAdvice() {
+    return advice;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    bindWoven.run();
+  }
+
+  private boolean advises(Class<?> type) {
+    if (advisedTypes.contains(type)) {
+      return true;
+    }
+    if ((watcherProperties.isProxyOnlyEnabled() && !watcherEnabled.test(watcherProperties))
+        || (packageScoped && !isWatchedPackage(type))) {
+      return false;
+    }
+    advisedTypes.add(type);
+    return true;
+  }
+
+  private boolean isWatchedPackage(Class<?> type) {
+    if (Proxy.isProxyClass(type)) {
+      // e.g. Spring Data repositories, decided by the interfaces of the application
+      for (Class<?> proxiedInterface : type.getInterfaces()) {
+        if (isWatchedPackage(proxiedInterface)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    List<String> includePackages = watcherProperties.getIncludePackages();
+    return (includePackages == null
+            || includePackages.isEmpty()
+            || isInAnyPackage(type, includePackages))
+        && !isInAnyPackage(type, watcherProperties.getExcludePackages());
+  }
+
+  private static boolean isInAnyPackage(Class<?> type, List<String> packages) {
+    if (packages == null) {
+      return false;
+    }
+    String typeName = type.getName();
+    for (String entry : packages) {
+      if (entry == null) {
+        continue;
+      }
+      String packageName = entry.trim();
+      if (!packageName.isEmpty()
+          && typeName.startsWith(packageName)
+          && (typeName.length() == packageName.length()
+              || typeName.charAt(packageName.length()) == '.')) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Creates the aspect on first use, so advisors do not initialize the request scope early. */
+  private static final class ConfiguredAspectInstanceFactory
+      implements MetadataAwareAspectInstanceFactory {
+
+    private final AspectMetadata aspectMetadata;
+
+    private final Supplier<?> aspect;
+
+    private ConfiguredAspectInstanceFactory(Class<?> aspectType, Supplier<?> aspect) {
+      this.aspectMetadata = new AspectMetadata(aspectType, aspectType.getName());
+      this.aspect = aspect;
+    }
+
+    @Override
+    public Object getAspectInstance() {
+      return aspect.get();
+    }
+
+    @Override
+    public ClassLoader getAspectClassLoader() {
+      return aspectMetadata.getAspectClass().getClassLoader();
+    }
+
+    @Override
+    public AspectMetadata getAspectMetadata() {
+      return aspectMetadata;
+    }
+
+    @Override
+    public Object getAspectCreationMutex() {
+      return this;
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.LOWEST_PRECEDENCE;
+    }
+  }
+}
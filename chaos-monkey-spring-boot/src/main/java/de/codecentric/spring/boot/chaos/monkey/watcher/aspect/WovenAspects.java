@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
+
+import org.aspectj.lang.Aspects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Support for watcher aspects woven at build time (e.g. with the aspectj-maven-plugin), instead of
+ * being applied through Spring AOP proxies.
+ *
+ * <p>AspectJ creates woven aspects itself, before there is an application context. Until they are
+ * bound to the context they watch nothing. Spring AOP ignores aspects that were compiled by ajc, so
+ * woven watchers do not create any proxies.
+ */
+public final class WovenAspects {
+
+  private static final Logger Logger = LoggerFactory.getLogger(WovenAspects.class);
+
+  private WovenAspects() {}
+
+  /**
+   * @param aspectType type of the watcher aspect
+   * @param configured aspect created by the application context
+   * @return the aspect instance used by AspectJ, bound to the dependencies of {@code configured},
+   *     if {@code aspectType} was woven at build time. Otherwise {@code configured}, which Spring
+   *     AOP uses to create proxies.
+   */
+  public static <T> T bind(Class<T> aspectType, T configured) {
+    if (!isWoven(aspectType)) {
+      return configured;
+    }
+    T woven = Aspects.aspectOf(aspectType);
+    ((ChaosMonkeyBaseAspect) woven).bindTo((ChaosMonkeyBaseAspect) configured);
+    Logger.debug("Bound {} woven at build time", aspectType.getSimpleName());
+    return woven;
+  }
+
+  /** @return whether the aspect was compiled or woven by ajc */
+  public static boolean isWoven(Class<?> aspectType) {
+    return Aspects.hasAspect(aspectType);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.incoming;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.watcher.ReactiveAssaults;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Watches the requests handled by a WebFlux server, no matter if they are handled by annotated
+ * controllers or by router functions. Assaults are applied without blocking the event loop, see
+ * {@link ReactiveAssaults}. The request path is used as name for toggles and watched custom
+ * services.
+ */
+public class ChaosMonkeyWebFilterWatcher implements WebFilter {
+
+  private static final Logger Logger = LoggerFactory.getLogger(ChaosMonkeyWebFilterWatcher.class);
+
+  private final ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+
+  private final WatcherProperties watcherProperties;
+
+  // parsed from the paths of the snapshot with the same version, replaced as a whole
+  private volatile WatchedPaths watchedPaths;
+
+  public ChaosMonkeyWebFilterWatcher(
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope, WatcherProperties watcherProperties) {
+    this.chaosMonkeyRequestScope = chaosMonkeyRequestScope;
+    this.watcherProperties = watcherProperties;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (!watcherProperties.isWebFilter() || !chaosMonkeyRequestScope.isEnabled()) {
+      return chain.filter(exchange);
+    }
+    PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+    if (!watchedPaths(chaosMonkeyRequestScope.getSnapshot()).matches(path)) {
+      return chain.filter(exchange);
+    }
+    return ReactiveAssaults.attack(chaosMonkeyRequestScope, ChaosTarget.WEB_FILTER, path.value())
+        .then(Mono.defer(() -> chain.filter(exchange)));
+  }
+
+  // the patterns are only parsed again when a new snapshot was published
+  private WatchedPaths watchedPaths(ChaosMonkeySnapshot snapshot) {
+    WatchedPaths current = watchedPaths;
+    if (current == null || current.version != snapshot.getVersion()) {
+      current = new WatchedPaths(snapshot.getVersion(), snapshot.getWebFilterPaths());
+      watchedPaths = current;
+    }
+    return current;
+  }
+
+  private static final class WatchedPaths {
+
+    private final long version;
+
+    private final PathPattern[] patterns;
+
+    private WatchedPaths(long version, List<String> paths) {
+      this.version = version;
+      List<PathPattern> patterns = new ArrayList<>(paths.size());
+      for (String path : paths) {
+        try {
+          patterns.add(PathPatternParser.defaultInstance.parse(path));
+        } catch (PatternParseException e) {
+          Logger.warn("Ignoring invalid web filter path {}", path, e);
+        }
+      }
+      this.patterns = patterns.toArray(new PathPattern[0]);
+    }
+
+    // all paths are watched if no patterns are configured
+    private boolean matches(PathContainer path) {
+      if (patterns.length == 0) {
+        return true;
+      }
+      for (PathPattern pattern : patterns) {
+        if (pattern.matches(path)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
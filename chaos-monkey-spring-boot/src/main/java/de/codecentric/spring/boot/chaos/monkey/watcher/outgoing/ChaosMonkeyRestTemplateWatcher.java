@@ -1,18 +1,28 @@
 package de.codecentric.spring.boot.chaos.monkey.watcher.outgoing;
 
+import de.codecentric.spring.boot.chaos.monkey.assaults.BandwidthAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.HangAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog;
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog.Fault;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
-import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.AbstractClientHttpResponse;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -25,15 +35,12 @@ public class ChaosMonkeyRestTemplateWatcher implements ClientHttpRequestIntercep
 
   private final WatcherProperties watcherProperties;
   private final ChaosMonkeyRequestScope chaosMonkeyRequestScope;
-  private final AssaultProperties assaultProperties;
 
   public ChaosMonkeyRestTemplateWatcher(
       final ChaosMonkeyRequestScope chaosMonkeyRequestScope,
-      final WatcherProperties watcherProperties,
-      AssaultProperties assaultProperties) {
+      final WatcherProperties watcherProperties) {
     this.chaosMonkeyRequestScope = chaosMonkeyRequestScope;
     this.watcherProperties = watcherProperties;
-    this.assaultProperties = assaultProperties;
   }
 
   @Override
@@ -42,39 +49,113 @@ public class ChaosMonkeyRestTemplateWatcher implements ClientHttpRequestIntercep
       byte[] bytes,
       ClientHttpRequestExecution clientHttpRequestExecution)
       throws IOException {
+    if (!watcherProperties.isRestTemplate() || !chaosMonkeyRequestScope.isEnabled()) {
+      return clientHttpRequestExecution.execute(httpRequest, bytes);
+    }
+    String url = httpRequest.getURI().toString();
+    if (watcherProperties.isRestTemplatePreFlight()) {
+      // decide before sending, a fault never reaches the downstream service
+      ChaosMonkeyRequestAssault assault =
+          chaosMonkeyRequestScope.selectAssault(ChaosTarget.REST_TEMPLATE, url);
+      Fault fault = attack(assault, url);
+      return fault == null
+          ? respond(assault, clientHttpRequestExecution.execute(httpRequest, bytes))
+          : fail(fault);
+    }
     ClientHttpResponse response = clientHttpRequestExecution.execute(httpRequest, bytes);
-    if (watcherProperties.isRestTemplate()) {
-      try {
-        chaosMonkeyRequestScope.callChaosMonkey(
-            ChaosTarget.REST_TEMPLATE, httpRequest.getURI().toString());
-      } catch (final Exception exception) {
-        try {
-          if (exception.getClass().equals(assaultProperties.getException().getExceptionClass())) {
-            response = new ErrorResponse();
-          } else {
-            throw exception;
-          }
-        } catch (ClassNotFoundException e) {
-          throw new RuntimeException(e);
-        }
+    ChaosMonkeyRequestAssault assault =
+        chaosMonkeyRequestScope.selectAssault(ChaosTarget.REST_TEMPLATE, url);
+    Fault fault = attack(assault, url);
+    if (fault != null) {
+      // release the connection of the discarded response
+      response.close();
+      return fail(fault);
+    }
+    return respond(assault, response);
+  }
+
+  /** @return the fault the request fails with, null if it does not fail */
+  private Fault attack(ChaosMonkeyRequestAssault assault, String url) {
+    if (assault == null || assault instanceof BandwidthAssault || assault instanceof HangAssault) {
+      return null;
+    }
+    try {
+      assault.attack(ChaosTarget.REST_TEMPLATE, url);
+      return null;
+    } catch (final Exception exception) {
+      ChaosMonkeySnapshot snapshot = chaosMonkeyRequestScope.getSnapshot();
+      if (snapshot.getExceptionFactory().isAssaultException(exception)) {
+        return snapshot.getOutgoingFaults().choose();
       }
+      throw exception;
+    }
+  }
+
+  private static ClientHttpResponse respond(
+      ChaosMonkeyRequestAssault assault, ClientHttpResponse response) throws IOException {
+    if (assault instanceof BandwidthAssault) {
+      return new ThrottledClientHttpResponse(
+          response, ((BandwidthAssault) assault).prepareAttack());
+    }
+    if (assault instanceof HangAssault) {
+      hang((HangAssault) assault, response);
+      throw new SocketTimeoutException("Read timed out");
     }
     return response;
   }
 
+  /** Holds the response, and the connection it was received on, until the hang is over. */
+  private static void hang(HangAssault assault, ClientHttpResponse response) throws IOException {
+    CompletableFuture<Void> hang = assault.prepareAttack();
+    try {
+      hang.get();
+    } catch (InterruptedException e) {
+      hang.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while the request was hanging");
+    } catch (ExecutionException e) {
+      // a hang is only ever completed normally
+    } finally {
+      response.close();
+    }
+  }
+
+  private static ClientHttpResponse fail(Fault fault) throws IOException {
+    switch (fault.getType()) {
+      case CONNECTION_RESET:
+        throw new SocketException("Connection reset");
+      case READ_TIMEOUT:
+        // a blocking client waits for its read timeout on the calling thread as well
+        try {
+          TimeUnit.MILLISECONDS.sleep(fault.getTimeout());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for the read timeout");
+        }
+        throw new SocketTimeoutException("Read timed out");
+      default:
+        return new ErrorResponse(fault);
+    }
+  }
+
   static class ErrorResponse extends AbstractClientHttpResponse {
 
     static final String ERROR_TEXT = "This error is generated by Chaos Monkey for Spring Boot";
-    static final String ERROR_BODY =
-        "{\"error\": \"This is a Chaos Monkey for Spring Boot generated failure\"}";
+    static final String ERROR_BODY = OutgoingFaultCatalog.ERROR_BODY;
 
     private static final Logger Logger = LoggerFactory.getLogger(ErrorResponse.class);
 
+    private final Fault fault;
+
     @Nullable private InputStream responseStream;
 
+    ErrorResponse(Fault fault) {
+      this.fault = fault;
+    }
+
     @Override
     public int getRawStatusCode() {
-      return HttpStatus.INTERNAL_SERVER_ERROR.value();
+      return fault.getStatus();
     }
 
     @Override
@@ -98,13 +179,18 @@ public class ChaosMonkeyRestTemplateWatcher implements ClientHttpRequestIntercep
 
     @Override
     public InputStream getBody() {
-      responseStream = new ByteArrayInputStream(ERROR_BODY.getBytes(StandardCharsets.UTF_8));
+      responseStream = new ByteArrayInputStream(fault.getBody());
       return responseStream;
     }
 
     @Override
     public HttpHeaders getHeaders() {
-      return new HttpHeaders();
+      HttpHeaders headers = new HttpHeaders();
+      headers.setContentType(MediaType.APPLICATION_JSON);
+      if (fault.getRetryAfter() != null) {
+        headers.set(HttpHeaders.RETRY_AFTER, fault.getRetryAfter());
+      }
+      return headers;
     }
   }
 }
@@ -1,16 +1,35 @@
 package de.codecentric.spring.boot.chaos.monkey.watcher.outgoing;
 
+import de.codecentric.spring.boot.chaos.monkey.assaults.BandwidthAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.HangAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog;
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog.Fault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.TokenBucket;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
-import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.watcher.ReactiveAssaults;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.springframework.http.HttpStatus;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /** @author Marcel Becker */
@@ -18,43 +37,125 @@ public class ChaosMonkeyWebClientWatcher implements ExchangeFilterFunction {
 
   private final ChaosMonkeyRequestScope chaosMonkeyRequestScope;
   private final WatcherProperties watcherProperties;
-  private final AssaultProperties assaultProperties;
 
   private static final String ALREADY_FILTERED_SUFFIX = ".FILTERED";
 
   public ChaosMonkeyWebClientWatcher(
       final ChaosMonkeyRequestScope chaosMonkeyRequestScope,
-      final WatcherProperties watcherProperties,
-      AssaultProperties assaultProperties) {
+      final WatcherProperties watcherProperties) {
     this.chaosMonkeyRequestScope = chaosMonkeyRequestScope;
     this.watcherProperties = watcherProperties;
-    this.assaultProperties = assaultProperties;
   }
 
   @Override
   public Mono<ClientResponse> filter(
       ClientRequest clientRequest, ExchangeFunction exchangeFunction) {
+    if (!watcherProperties.isWebClient() || !chaosMonkeyRequestScope.isEnabled()) {
+      // nothing to watch, skip the once-per-request bookkeeping as well
+      return exchangeFunction.exchange(clientRequest);
+    }
     final RequestFilterWrapper requestFilterWrapper = handleOncePerRequest(clientRequest);
     Mono<ClientResponse> response = exchangeFunction.exchange(requestFilterWrapper.clientRequest);
-    if (requestFilterWrapper.filter) {
-      if (watcherProperties.isWebClient()) {
-        try {
-          chaosMonkeyRequestScope.callChaosMonkey(
-              ChaosTarget.WEB_CLIENT, clientRequest.url().toString());
-        } catch (final Exception exception) {
-          try {
-            if (exception.getClass().equals(assaultProperties.getException().getExceptionClass())) {
-              response = Mono.just(ErrorClientResponse.getResponse());
-            } else {
-              throw exception;
-            }
-          } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
+    if (!requestFilterWrapper.filter) {
+      return response;
+    }
+    String url = clientRequest.url().toString();
+    // decided and applied on subscription, latency never blocks the thread building the request
+    return Mono.defer(
+        () -> {
+          ChaosMonkeyRequestAssault assault =
+              chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, url);
+          if (assault instanceof BandwidthAssault) {
+            return response.map(
+                clientResponse ->
+                    throttle(clientResponse, ((BandwidthAssault) assault).prepareAttack()));
           }
-        }
-      }
+          if (assault instanceof HangAssault) {
+            // the response and its connection are released when the hang ends or is cancelled
+            return Mono.usingWhen(
+                response,
+                clientResponse -> hang((HangAssault) assault, clientRequest),
+                ClientResponse::releaseBody);
+          }
+          return ReactiveAssaults.attack(assault, ChaosTarget.WEB_CLIENT, url)
+              .then(Mono.<ClientResponse>empty())
+              .onErrorResume(
+                  this::isAssaultException,
+                  exception ->
+                      fail(
+                          chaosMonkeyRequestScope.getSnapshot().getOutgoingFaults().choose(),
+                          clientRequest))
+              .switchIfEmpty(response);
+        });
+  }
+
+  private boolean isAssaultException(Throwable exception) {
+    return chaosMonkeyRequestScope
+        .getSnapshot()
+        .getExceptionFactory()
+        .isAssaultException(exception);
+  }
+
+  private static Mono<ClientResponse> fail(Fault fault, ClientRequest clientRequest) {
+    switch (fault.getType()) {
+      case CONNECTION_RESET:
+        return Mono.error(requestException(new SocketException("Connection reset"), clientRequest));
+      case READ_TIMEOUT:
+        return Mono.delay(Duration.ofMillis(fault.getTimeout()))
+            .then(
+                Mono.error(
+                    requestException(new SocketTimeoutException("Read timed out"), clientRequest)));
+      default:
+        return Mono.just(ErrorClientResponse.getResponse(fault));
     }
-    return response;
+  }
+
+  private static Mono<ClientResponse> hang(HangAssault assault, ClientRequest clientRequest) {
+    CompletableFuture<Void> hang = assault.prepareAttack();
+    return Mono.fromFuture(hang)
+        .doOnCancel(() -> hang.cancel(false))
+        .then(
+            Mono.error(
+                () ->
+                    requestException(new SocketTimeoutException("Read timed out"), clientRequest)));
+  }
+
+  private static ClientResponse throttle(ClientResponse clientResponse, TokenBucket tokenBucket) {
+    return clientResponse.mutate().body(body -> throttle(body, tokenBucket)).build();
+  }
+
+  /**
+   * Cuts the buffers into chunks of the bucket and delays each chunk until it may pass. Only the
+   * buffer currently delayed is held, chunks that are never emitted are released.
+   */
+  static Flux<DataBuffer> throttle(Flux<DataBuffer> body, TokenBucket tokenBucket) {
+    return body.concatMap(buffer -> chunks(buffer, tokenBucket.getChunkSize()))
+        .concatMap(
+            chunk ->
+                Mono.just(chunk)
+                    .delayElement(Duration.ofNanos(tokenBucket.reserve(chunk.readableByteCount()))))
+        .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+  }
+
+  private static Flux<DataBuffer> chunks(DataBuffer buffer, int chunkSize) {
+    int readable = buffer.readableByteCount();
+    if (readable <= chunkSize) {
+      return Flux.just(buffer);
+    }
+    List<DataBuffer> chunks = new ArrayList<>(readable / chunkSize + 1);
+    for (int offset = 0; offset < readable; offset += chunkSize) {
+      chunks.add(
+          buffer.retainedSlice(
+              buffer.readPosition() + offset, Math.min(chunkSize, readable - offset)));
+    }
+    DataBufferUtils.release(buffer);
+    return Flux.fromIterable(chunks);
+  }
+
+  private static WebClientRequestException requestException(
+      Exception cause, ClientRequest clientRequest) {
+    return new WebClientRequestException(
+        cause, clientRequest.method(), clientRequest.url(), clientRequest.headers());
   }
 
   private RequestFilterWrapper handleOncePerRequest(final ClientRequest clientRequest) {
@@ -81,11 +182,18 @@ public class ChaosMonkeyWebClientWatcher implements ExchangeFilterFunction {
 
   static class ErrorClientResponse {
 
-    static final String ERROR_BODY =
-        "{\"error\": \"This is a Chaos Monkey for Spring Boot generated failure\"}";
+    static final String ERROR_BODY = OutgoingFaultCatalog.ERROR_BODY;
 
-    private static ClientResponse getResponse() {
-      return ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).body(ERROR_BODY).build();
+    private static ClientResponse getResponse(Fault fault) {
+      ClientResponse.Builder response =
+          ClientResponse.create(fault.getStatus(), ExchangeStrategies.withDefaults())
+              .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+              // wraps the serialized body without copying it
+              .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(fault.getBody())));
+      if (fault.getRetryAfter() != null) {
+        response.header(HttpHeaders.RETRY_AFTER, fault.getRetryAfter());
+      }
+      return response.build();
     }
   }
 }
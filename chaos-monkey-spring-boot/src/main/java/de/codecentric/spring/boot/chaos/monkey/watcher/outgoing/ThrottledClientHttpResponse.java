@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.outgoing;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.TokenBucket;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Response whose body is read through a {@link TokenBucket}. The body is streamed from the original
+ * response, reads are only cut into chunks and delayed.
+ */
+class ThrottledClientHttpResponse implements ClientHttpResponse {
+
+  private final ClientHttpResponse response;
+
+  private final TokenBucket tokenBucket;
+
+  private InputStream body;
+
+  ThrottledClientHttpResponse(ClientHttpResponse response, TokenBucket tokenBucket) {
+    this.response = response;
+    this.tokenBucket = tokenBucket;
+  }
+
+  @Override
+  public HttpStatus getStatusCode() throws IOException {
+    return response.getStatusCode();
+  }
+
+  @Override
+  public int getRawStatusCode() throws IOException {
+    return response.getRawStatusCode();
+  }
+
+  @Override
+  public String getStatusText() throws IOException {
+    return response.getStatusText();
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    return response.getHeaders();
+  }
+
+  @Override
+  public InputStream getBody() throws IOException {
+    if (body == null) {
+      body = new ThrottledInputStream(response.getBody(), tokenBucket);
+    }
+    return body;
+  }
+
+  @Override
+  public void close() {
+    response.close();
+  }
+
+  private static class ThrottledInputStream extends FilterInputStream {
+
+    private final TokenBucket tokenBucket;
+
+    private ThrottledInputStream(InputStream in, TokenBucket tokenBucket) {
+      super(in);
+      this.tokenBucket = tokenBucket;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      if (read >= 0) {
+        tokenBucket.acquire(1);
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, Math.min(len, tokenBucket.getChunkSize()));
+      if (read > 0) {
+        tokenBucket.acquire(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(Math.min(n, tokenBucket.getChunkSize()));
+      if (skipped > 0) {
+        tokenBucket.acquire((int) skipped);
+      }
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return Math.min(super.available(), tokenBucket.getChunkSize());
+    }
+
+    @Override
+    public boolean markSupported() {
+      // bytes read again after a reset would not be throttled
+      return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {}
+
+    @Override
+    public synchronized void reset() throws IOException {
+      throw new IOException("mark/reset not supported");
+    }
+  }
+}
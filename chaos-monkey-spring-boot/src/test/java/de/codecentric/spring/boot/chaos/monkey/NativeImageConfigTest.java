@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.util.HashSet;
+import java.util.Set;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+/** Guards the GraalVM native-image configuration against renamed or new classes. */
+class NativeImageConfigTest {
+
+  private static final String CONFIG_DIR =
+      "/META-INF/native-image/de.codecentric/chaos-monkey-spring-boot/";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void reflectionConfigOnlyContainsExistingClasses() throws Exception {
+    for (String className : registeredClasses()) {
+      assertThat(Class.forName(className)).isNotNull();
+    }
+  }
+
+  @Test
+  void aspectsAreRegisteredForReflection() throws IOException {
+    assertThat(registeredClasses()).containsAll(annotatedClasses(Aspect.class));
+  }
+
+  @Test
+  void configurationPropertiesAreRegisteredForReflection() throws IOException {
+    assertThat(registeredClasses()).containsAll(annotatedClasses(ConfigurationProperties.class));
+  }
+
+  @Test
+  void resourcesExist() throws IOException {
+    for (JsonNode include : read("resource-config.json").path("resources").path("includes")) {
+      String resource = include.path("pattern").asText().replace("\\Q", "").replace("\\E", "");
+      assertThat(getClass().getResource("/" + resource)).as(resource).isNotNull();
+    }
+  }
+
+  private Set<String> registeredClasses() throws IOException {
+    Set<String> classNames = new HashSet<>();
+    for (JsonNode entry : read("reflect-config.json")) {
+      classNames.add(entry.path("name").asText());
+    }
+    return classNames;
+  }
+
+  private Set<String> annotatedClasses(Class<? extends Annotation> annotation) {
+    ClassPathScanningCandidateComponentProvider scanner =
+        new ClassPathScanningCandidateComponentProvider(false);
+    scanner.addIncludeFilter(new AnnotationTypeFilter(annotation));
+    Set<String> classNames = new HashSet<>();
+    for (BeanDefinition candidate :
+        scanner.findCandidateComponents("de.codecentric.spring.boot.chaos.monkey")) {
+      classNames.add(candidate.getBeanClassName());
+    }
+    return classNames;
+  }
+
+  private JsonNode read(String file) throws IOException {
+    try (InputStream config = getClass().getResourceAsStream(CONFIG_DIR + file)) {
+      return objectMapper.readTree(config);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CpuBurningLatencyAssaultExecutorTest {
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+  @Test
+  void burnsCpuTimeOfTheCallingThread() {
+    CpuBurningLatencyAssaultExecutor executor = new CpuBurningLatencyAssaultExecutor();
+    long start = System.nanoTime();
+    long cpuTimeStart = threadMXBean.getCurrentThreadCpuTime();
+
+    executor.execute(200);
+
+    Duration wallClock = Duration.ofNanos(System.nanoTime() - start);
+    assertThat(wallClock).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    if (executor.isCpuTimeSupported()) {
+      // on overbooked cores the wall clock limit ends the latency before the CPU time is reached
+      Duration cpuTime = Duration.ofNanos(threadMXBean.getCurrentThreadCpuTime() - cpuTimeStart);
+      assertThat(
+              cpuTime.compareTo(Duration.ofMillis(200)) >= 0
+                  || wallClock.compareTo(
+                          Duration.ofMillis(
+                              200 * CpuBurningLatencyAssaultExecutor.MAX_WALL_CLOCK_FACTOR))
+                      >= 0)
+          .as("cpu time %s, wall clock %s", cpuTime, wallClock)
+          .isTrue();
+    }
+  }
+
+  @Test
+  void usesWallClockWithoutCpuTime() {
+    ThreadMXBean unsupported = mock(ThreadMXBean.class);
+    given(unsupported.isCurrentThreadCpuTimeSupported()).willReturn(false);
+    CpuBurningLatencyAssaultExecutor executor = new CpuBurningLatencyAssaultExecutor(unsupported);
+
+    long start = System.nanoTime();
+    executor.execute(200);
+
+    assertThat(executor.isCpuTimeSupported()).isFalse();
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(200))
+        .isLessThan(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void cancelEndsRunningLatencies() throws Exception {
+    CpuBurningLatencyAssaultExecutor executor = new CpuBurningLatencyAssaultExecutor();
+    CompletableFuture<Long> burned = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              long start = System.nanoTime();
+              executor.execute(60_000);
+              burned.complete(System.nanoTime() - start);
+            });
+    thread.start();
+    Thread.sleep(100);
+
+    executor.cancel();
+
+    assertThat(burned.get(5, TimeUnit.SECONDS)).isLessThan(TimeUnit.SECONDS.toNanos(5));
+  }
+
+  @Test
+  void interruptEndsLatencyAndIsKept() throws Exception {
+    CpuBurningLatencyAssaultExecutor executor = new CpuBurningLatencyAssaultExecutor();
+    CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              executor.execute(60_000);
+              interrupted.complete(Thread.currentThread().isInterrupted());
+            });
+    thread.start();
+    Thread.sleep(100);
+
+    thread.interrupt();
+
+    assertThat(interrupted.get(5, TimeUnit.SECONDS)).isTrue();
+  }
+}
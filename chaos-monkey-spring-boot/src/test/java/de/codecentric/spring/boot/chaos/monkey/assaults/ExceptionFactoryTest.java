@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultException;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class ExceptionFactoryTest {
+
+  @Test
+  void createsDefaultRuntimeException() {
+    ExceptionFactory exceptionFactory = ExceptionFactory.of(new AssaultException());
+
+    Exception exception = exceptionFactory.create();
+
+    assertThat(exception)
+        .isExactlyInstanceOf(RuntimeException.class)
+        .hasMessage("Chaos Monkey - RuntimeException");
+    assertThat(exception.getStackTrace()).isNotEmpty();
+    assertThat(exceptionFactory.create()).isNotSameAs(exception);
+    assertThat(exceptionFactory.isAssaultException(exception)).isTrue();
+  }
+
+  @Test
+  void createsConfiguredExceptionWithArguments() {
+    ExceptionFactory exceptionFactory =
+        ExceptionFactory.of(
+            assaultException("java.lang.ArithmeticException", "java.lang.String", "boom"));
+
+    assertThat(exceptionFactory.create())
+        .isExactlyInstanceOf(ArithmeticException.class)
+        .hasMessage("boom");
+    assertThat(exceptionFactory.getExceptionClass()).isEqualTo(ArithmeticException.class);
+    assertThat(exceptionFactory.isAssaultException(new RuntimeException())).isFalse();
+  }
+
+  @Test
+  void throwsCheckedExceptions() {
+    ExceptionFactory exceptionFactory =
+        ExceptionFactory.of(assaultException("java.io.IOException", null, null));
+
+    assertThatThrownBy(exceptionFactory::throwException).isExactlyInstanceOf(IOException.class);
+  }
+
+  @Test
+  void stacklessExceptionIsPreallocated() {
+    AssaultException assaultException =
+        assaultException("java.lang.IllegalStateException", "java.lang.String", "boom");
+    assaultException.setStackless(true);
+    ExceptionFactory exceptionFactory = ExceptionFactory.of(assaultException);
+
+    Exception exception = exceptionFactory.create();
+
+    assertThat(exception).isExactlyInstanceOf(IllegalStateException.class).hasMessage("boom");
+    assertThat(exception.getStackTrace()).isEmpty();
+    assertThat(exceptionFactory.create()).isSameAs(exception);
+    assertThatThrownBy(exceptionFactory::throwException).isSameAs(exception);
+  }
+
+  @Test
+  void stacklessExceptionIsReplacedOnceSuppressedExceptionsWereAdded() {
+    AssaultException assaultException = new AssaultException();
+    assaultException.setStackless(true);
+    ExceptionFactory exceptionFactory = ExceptionFactory.of(assaultException);
+    Exception exception = exceptionFactory.create();
+
+    exception.addSuppressed(new IOException("close failed"));
+    Exception replaced = exceptionFactory.create();
+
+    assertThat(replaced).isNotSameAs(exception).hasMessage("Chaos Monkey - RuntimeException");
+    assertThat(replaced.getSuppressed()).isEmpty();
+    assertThat(replaced.getStackTrace()).isEmpty();
+    assertThat(exceptionFactory.create()).isSameAs(replaced);
+  }
+
+  @Test
+  void causeOfStacklessExceptionCannotBeChanged() {
+    AssaultException assaultException = new AssaultException();
+    assaultException.setStackless(true);
+    ExceptionFactory exceptionFactory = ExceptionFactory.of(assaultException);
+    Exception exception = exceptionFactory.create();
+
+    assertThatThrownBy(() -> exception.initCause(new IOException()))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(exceptionFactory.create().getCause()).isNull();
+  }
+
+  @Test
+  void fallsBackToRuntimeExceptionWithoutMatchingConstructor() {
+    ExceptionFactory exceptionFactory =
+        ExceptionFactory.of(
+            assaultException("java.lang.ArithmeticException", "java.lang.Integer", "1"));
+
+    assertThat(exceptionFactory.create())
+        .isExactlyInstanceOf(RuntimeException.class)
+        .hasMessage("Chaos Monkey - RuntimeException");
+    assertThat(exceptionFactory.getExceptionClass()).isEqualTo(RuntimeException.class);
+    assertThat(exceptionFactory.isAssaultException(exceptionFactory.create())).isTrue();
+  }
+
+  private static AssaultException assaultException(
+      String type, String argumentClass, String argumentValue) {
+    AssaultException assaultException = new AssaultException();
+    assaultException.setType(type);
+    if (argumentClass != null) {
+      AssaultException.ExceptionArgument argument = new AssaultException.ExceptionArgument();
+      argument.setClassName(argumentClass);
+      argument.setValue(argumentValue);
+      assaultException.setArguments(Collections.singletonList(argument));
+    }
+    return assaultException;
+  }
+}
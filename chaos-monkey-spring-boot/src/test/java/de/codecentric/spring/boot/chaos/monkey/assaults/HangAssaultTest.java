@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class HangAssaultTest {
+
+  private final ChaosMonkeySettings settings = new ChaosMonkeySettings();
+
+  private final HangAssault hangAssault = new HangAssault(settings, null);
+
+  HangAssaultTest() {
+    settings.setChaosMonkeyProperties(new ChaosMonkeyProperties());
+    settings.getChaosMonkeyProperties().setEnabled(true);
+    settings.setAssaultProperties(new AssaultProperties());
+  }
+
+  @Test
+  void hangEndsAfterConfiguredTimeout() throws Exception {
+    hangAssault.reloadConfig(snapshot(300));
+
+    long start = System.nanoTime();
+    hangAssault.prepareAttack().get(5, TimeUnit.SECONDS);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+    assertThat(hangAssault.getPendingHangs()).isZero();
+  }
+
+  @Test
+  void pendingHangsAreCounted() {
+    hangAssault.reloadConfig(snapshot(60_000));
+
+    CompletableFuture<Void> hang = hangAssault.prepareAttack();
+    assertThat(hangAssault.getPendingHangs()).isOne();
+
+    hang.cancel(false);
+    assertThat(hangAssault.getPendingHangs()).isZero();
+  }
+
+  @Test
+  void unrelatedConfigurationChangeKeepsPendingHangs() {
+    settings.getAssaultProperties().setHangActive(true);
+    hangAssault.reloadConfig(snapshot(60_000));
+    CompletableFuture<Void> hang = hangAssault.prepareAttack();
+
+    hangAssault.reloadConfig(snapshot(60_000));
+
+    assertThat(hang).isNotDone();
+    hang.cancel(false);
+  }
+
+  @Test
+  void deactivatingTheAssaultEndsPendingHangs() {
+    settings.getAssaultProperties().setHangActive(true);
+    hangAssault.reloadConfig(snapshot(60_000));
+    CompletableFuture<Void> hang = hangAssault.prepareAttack();
+
+    settings.getAssaultProperties().setHangActive(false);
+    hangAssault.reloadConfig(snapshot(60_000));
+
+    assertThat(hang).isCompleted();
+    assertThat(hangAssault.getPendingHangs()).isZero();
+  }
+
+  @Test
+  void disablingChaosMonkeyEndsPendingHangs() {
+    settings.getAssaultProperties().setHangActive(true);
+    hangAssault.reloadConfig(snapshot(60_000));
+    CompletableFuture<Void> hang = hangAssault.prepareAttack();
+
+    settings.getChaosMonkeyProperties().setEnabled(false);
+    hangAssault.reloadConfig(snapshot(60_000));
+
+    assertThat(hang).isCompleted();
+    assertThat(hangAssault.getPendingHangs()).isZero();
+  }
+
+  @Test
+  void appliesToOutgoingRequestsOnly() {
+    assertThat(hangAssault.appliesTo(ChaosTarget.REST_TEMPLATE)).isTrue();
+    assertThat(hangAssault.appliesTo(ChaosTarget.WEB_CLIENT)).isTrue();
+    assertThat(hangAssault.appliesTo(ChaosTarget.SERVICE)).isFalse();
+    assertThat(hangAssault.appliesTo(null)).isFalse();
+  }
+
+  @Test
+  void usesSettingsBeforeFirstConfiguration() throws Exception {
+    settings.getAssaultProperties().setHangTimeout(1);
+
+    hangAssault.prepareAttack().get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void isActiveIfConfigured() {
+    assertThat(hangAssault.isActive()).isFalse();
+
+    settings.getAssaultProperties().setHangActive(true);
+
+    assertThat(hangAssault.isActive()).isTrue();
+  }
+
+  private static ChaosMonkeySnapshot snapshot(int hangTimeout) {
+    ChaosMonkeySnapshot snapshot = mock(ChaosMonkeySnapshot.class);
+    when(snapshot.getHangTimeout()).thenReturn(hangTimeout);
+    return snapshot;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LatencyAssaultExecutorTest {
+
+  @Mock private MetricEventPublisher metricEventPublisher;
+
+  @Test
+  void waitsForLatency() {
+    LatencyAssaultExecutor executor = new LatencyAssaultExecutor();
+
+    long start = System.nanoTime();
+    executor.execute(200);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(200));
+  }
+
+  @Test
+  void cancelEndsRunningLatencies() throws Exception {
+    LatencyAssaultExecutor executor = new LatencyAssaultExecutor(metricEventPublisher);
+    CompletableFuture<Long> waited = waitInBackground(executor, 60_000);
+    awaitParkedThreads(executor, 1);
+
+    executor.cancel();
+
+    assertThat(waited.get(5, TimeUnit.SECONDS)).isLessThan(TimeUnit.SECONDS.toNanos(5));
+    assertThat(executor.getParkedThreads()).isZero();
+    verify(metricEventPublisher).publishMetricEvent(MetricType.LATENCY_ASSAULT_PARKED_THREADS, 1L);
+    verify(metricEventPublisher).publishMetricEvent(MetricType.LATENCY_ASSAULT_PARKED_THREADS, 0L);
+  }
+
+  @Test
+  void latenciesStartedAfterCancelAreNotAffected() {
+    LatencyAssaultExecutor executor = new LatencyAssaultExecutor();
+    executor.cancel();
+
+    long start = System.nanoTime();
+    executor.execute(200);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(200));
+  }
+
+  @Test
+  void interruptEndsLatencyAndIsKept() throws Exception {
+    LatencyAssaultExecutor executor = new LatencyAssaultExecutor();
+    CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              executor.execute(60_000);
+              interrupted.complete(Thread.currentThread().isInterrupted());
+            });
+    thread.start();
+    awaitParkedThreads(executor, 1);
+
+    thread.interrupt();
+
+    assertThat(interrupted.get(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private static CompletableFuture<Long> waitInBackground(
+      LatencyAssaultExecutor executor, long latency) {
+    CompletableFuture<Long> waited = new CompletableFuture<>();
+    new Thread(
+            () -> {
+              long start = System.nanoTime();
+              executor.execute(latency);
+              waited.complete(System.nanoTime() - start);
+            })
+        .start();
+    return waited;
+  }
+
+  private static void awaitParkedThreads(LatencyAssaultExecutor executor, int expected)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (executor.getParkedThreads() != expected && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(executor.getParkedThreads()).isEqualTo(expected);
+  }
+}
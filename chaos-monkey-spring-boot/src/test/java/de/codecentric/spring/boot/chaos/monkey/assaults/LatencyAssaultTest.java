@@ -16,11 +16,23 @@
 
 package de.codecentric.spring.boot.chaos.monkey.assaults;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
 import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggleNameMapper;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggles;
+import java.util.Collections;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -53,6 +65,85 @@ class LatencyAssaultTest {
     assertTrue(executor.duration <= latencyRangeEnd, assertionMessage);
   }
 
+  @Test
+  void burnsCpuInsteadOfWaitingIfConfigured() {
+    TestLatencyAssaultExecutor executor = new TestLatencyAssaultExecutor();
+    TestLatencyAssaultExecutor cpuBurningExecutor = new TestLatencyAssaultExecutor();
+    when(assaultProperties.getLatencyRangeStart()).thenReturn(100);
+    when(assaultProperties.getLatencyRangeEnd()).thenReturn(100);
+    when(assaultProperties.isLatencyBurnCpu()).thenReturn(true);
+    when(chaosMonkeySettings.getAssaultProperties()).thenReturn(assaultProperties);
+
+    new LatencyAssault(chaosMonkeySettings, null, executor, cpuBurningExecutor).attack();
+
+    assertTrue(cpuBurningExecutor.executed);
+    assertFalse(executor.executed);
+  }
+
+  @Test
+  void changedLatencyCancelsRunningLatencies() {
+    ChaosMonkeyLatencyAssaultExecutor executor = mock(ChaosMonkeyLatencyAssaultExecutor.class);
+    ChaosMonkeyProperties chaosMonkeyProperties = new ChaosMonkeyProperties();
+    chaosMonkeyProperties.setEnabled(true);
+    when(assaultProperties.isLatencyActive()).thenReturn(true);
+    when(chaosMonkeySettings.getAssaultProperties()).thenReturn(assaultProperties);
+    when(chaosMonkeySettings.getChaosMonkeyProperties()).thenReturn(chaosMonkeyProperties);
+    LatencyAssault latencyAssault = new LatencyAssault(chaosMonkeySettings, null, executor);
+
+    latencyAssault.reloadConfig(snapshot(1000, 2000));
+    latencyAssault.reloadConfig(snapshot(1000, 2000));
+    verify(executor, never()).cancel();
+
+    latencyAssault.reloadConfig(snapshot(100, 200));
+    verify(executor).cancel();
+  }
+
+  @Test
+  void disabledChaosMonkeyCancelsRunningLatencies() {
+    ChaosMonkeyLatencyAssaultExecutor executor = mock(ChaosMonkeyLatencyAssaultExecutor.class);
+    ChaosMonkeyProperties chaosMonkeyProperties = new ChaosMonkeyProperties();
+    when(chaosMonkeySettings.getChaosMonkeyProperties()).thenReturn(chaosMonkeyProperties);
+    LatencyAssault latencyAssault = new LatencyAssault(chaosMonkeySettings, null, executor);
+    latencyAssault.reloadConfig(snapshot(1000, 2000));
+
+    chaosMonkeyProperties.setEnabled(false);
+    latencyAssault.reloadConfig(snapshot(1000, 2000));
+
+    verify(executor).cancel();
+  }
+
+  @Test
+  void disablingChaosMonkeyThroughUpdateCancelsRunningLatencies() {
+    ChaosMonkeyProperties chaosMonkeyProperties = new ChaosMonkeyProperties();
+    chaosMonkeyProperties.setEnabled(true);
+    ChaosMonkeySettings settings =
+        new ChaosMonkeySettings(
+            chaosMonkeyProperties, new AssaultProperties(), new WatcherProperties());
+    ChaosMonkeyLatencyAssaultExecutor executor = mock(ChaosMonkeyLatencyAssaultExecutor.class);
+    ChaosMonkeyRequestScope requestScope =
+        new ChaosMonkeyRequestScope(
+            settings,
+            Collections.singletonList(new LatencyAssault(settings, null, executor)),
+            Collections.emptyList(),
+            null,
+            new DefaultChaosToggles(),
+            new DefaultChaosToggleNameMapper(chaosMonkeyProperties.getTogglePrefix()));
+    requestScope.getSnapshot();
+
+    // like the disable endpoints do
+    requestScope.updateConfig(update -> update.getChaosMonkeyProperties().setEnabled(false));
+
+    verify(executor).cancel();
+  }
+
+  private static ChaosMonkeySnapshot snapshot(int latencyRangeStart, int latencyRangeEnd) {
+    // not every snapshot is compared with the previous one
+    ChaosMonkeySnapshot snapshot = mock(ChaosMonkeySnapshot.class, withSettings().lenient());
+    when(snapshot.getLatencyRangeStart()).thenReturn(latencyRangeStart);
+    when(snapshot.getLatencyRangeEnd()).thenReturn(latencyRangeEnd);
+    return snapshot;
+  }
+
   class TestLatencyAssaultExecutor implements ChaosMonkeyLatencyAssaultExecutor {
 
     private long duration;
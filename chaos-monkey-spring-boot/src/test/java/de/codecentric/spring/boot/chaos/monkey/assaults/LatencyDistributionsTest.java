@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.LatencyDistributionType;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LatencyDistributionsTest {
+
+  private static final int SAMPLES = 100_000;
+
+  private final Random random = new Random(42);
+
+  @Test
+  void uniformIsDefault() {
+    int[] latencies = sample(LatencyDistributions.of(properties(null, 1000, 3000)));
+
+    assertThat(latencies[0]).isGreaterThanOrEqualTo(1000);
+    assertThat(latencies[SAMPLES - 1]).isLessThan(3000);
+    assertThat(percentile(latencies, 50)).isCloseTo(2000, within(50));
+  }
+
+  @Test
+  void normalStaysWithinRange() {
+    int[] latencies =
+        sample(LatencyDistributions.of(properties(LatencyDistributionType.NORMAL, 1000, 3000)));
+
+    assertThat(latencies[0]).isGreaterThanOrEqualTo(1000);
+    assertThat(latencies[SAMPLES - 1]).isLessThanOrEqualTo(3000);
+    assertThat(percentile(latencies, 50)).isCloseTo(2000, within(20));
+    // one standard deviation
+    assertThat(percentile(latencies, 84.1)).isCloseTo(2333, within(30));
+  }
+
+  @Test
+  void logNormalHasMedianAndP99OfRange() {
+    int[] latencies =
+        sample(LatencyDistributions.of(properties(LatencyDistributionType.LOG_NORMAL, 100, 2000)));
+
+    assertThat(percentile(latencies, 50)).isCloseTo(100, within(3));
+    assertThat(percentile(latencies, 99)).isCloseTo(2000, within(200));
+    assertThat(latencies[SAMPLES - 1]).isLessThanOrEqualTo(20_000);
+  }
+
+  @Test
+  void paretoHasMinimumAndP99OfRange() {
+    int[] latencies =
+        sample(LatencyDistributions.of(properties(LatencyDistributionType.PARETO, 100, 2000)));
+
+    assertThat(latencies[0]).isEqualTo(100);
+    assertThat(percentile(latencies, 99)).isCloseTo(2000, within(200));
+    assertThat(latencies[SAMPLES - 1]).isLessThanOrEqualTo(20_000);
+  }
+
+  @Test
+  void bimodalHasShareOfSlowLatencies() {
+    AssaultProperties properties = properties(LatencyDistributionType.BIMODAL, 1000, 3000);
+    properties.setLatencyBimodalSlowRatio(0.2);
+
+    int[] latencies = sample(LatencyDistributions.of(properties));
+
+    long slow = Arrays.stream(latencies).filter(latency -> latency > 2000).count();
+    assertThat((double) slow / SAMPLES).isCloseTo(0.2, within(0.01));
+    assertThat(percentile(latencies, 40)).isCloseTo(1200, within(50));
+    assertThat(percentile(latencies, 90)).isCloseTo(2800, within(50));
+  }
+
+  @Test
+  void percentileTableIsReplayed() throws IOException {
+    String table = "# percentile,latency\n50,10\n90,100\n99,1000\n100,5000\n";
+
+    int[] latencies = sample(EmpiricalLatencyDistribution.read(new StringReader(table)));
+
+    // the table does not start at percentile 0, the first bucket starts at 0
+    assertThat(latencies[0]).isLessThanOrEqualTo(1);
+    assertThat(percentile(latencies, 25)).isCloseTo(5, within(1));
+    assertThat(percentile(latencies, 50)).isCloseTo(10, within(1));
+    assertThat(percentile(latencies, 70)).isCloseTo(55, within(3));
+    assertThat(percentile(latencies, 95)).isCloseTo(600, within(30));
+    assertThat(percentile(latencies, 99)).isCloseTo(1000, within(200));
+    assertThat(latencies[SAMPLES - 1]).isLessThanOrEqualTo(5000);
+  }
+
+  @Test
+  void percentileTableStartsAtRecordedMinimum() throws IOException {
+    String table = "0,8\n50,10\n100,20\n";
+
+    int[] latencies = sample(EmpiricalLatencyDistribution.read(new StringReader(table)));
+
+    assertThat(latencies[0]).isGreaterThanOrEqualTo(8);
+    assertThat(percentile(latencies, 25)).isCloseTo(9, within(1));
+    assertThat(latencies[SAMPLES - 1]).isLessThanOrEqualTo(20);
+  }
+
+  @Test
+  void hdrHistogramPercentileDistributionIsReplayed() throws IOException {
+    String distribution =
+        "       Value     Percentile TotalCount 1/(1-Percentile)\n"
+            + "\n"
+            + "      20.000 0.000000000000          1           1.00\n"
+            + "      40.000 0.500000000000       5000           2.00\n"
+            + "     400.000 0.990000000000       9900         100.00\n"
+            + "    1000.000 1.000000000000      10000\n"
+            + "#[Mean    =       60.000, StdDeviation   =       80.000]\n"
+            + "#[Max     =     1000.000, Total count    =        10000]\n";
+
+    int[] latencies = sample(EmpiricalLatencyDistribution.read(new StringReader(distribution)));
+
+    assertThat(latencies[0]).isGreaterThanOrEqualTo(20);
+    assertThat(percentile(latencies, 25)).isCloseTo(30, within(2));
+    assertThat(percentile(latencies, 99)).isCloseTo(400, within(20));
+    assertThat(latencies[SAMPLES - 1]).isLessThanOrEqualTo(1000);
+  }
+
+  @Test
+  void emptyHistogramIsRejected() {
+    assertThatThrownBy(() -> EmpiricalLatencyDistribution.read(new StringReader("# nothing\n")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void empiricalLoadsHistogramResource() {
+    AssaultProperties properties = properties(LatencyDistributionType.EMPIRICAL, 1, 2);
+    properties.setLatencyHistogramLocation("classpath:latency-histogram.csv");
+
+    int[] latencies = sample(LatencyDistributions.of(properties));
+
+    assertThat(latencies[0]).isGreaterThanOrEqualTo(2);
+    assertThat(latencies[SAMPLES - 1]).isLessThanOrEqualTo(500);
+  }
+
+  @Test
+  void missingHistogramFallsBackToUniform() {
+    AssaultProperties properties = properties(LatencyDistributionType.EMPIRICAL, 1000, 3000);
+    properties.setLatencyHistogramLocation("classpath:does-not-exist.csv");
+
+    int[] latencies = sample(LatencyDistributions.of(properties));
+
+    assertThat(latencies[0]).isGreaterThanOrEqualTo(1000);
+    assertThat(latencies[SAMPLES - 1]).isLessThan(3000);
+  }
+
+  private static AssaultProperties properties(LatencyDistributionType type, int start, int end) {
+    AssaultProperties properties = new AssaultProperties();
+    if (type != null) {
+      properties.setLatencyDistribution(type);
+    }
+    properties.setLatencyRangeStart(start);
+    properties.setLatencyRangeEnd(end);
+    return properties;
+  }
+
+  private int[] sample(LatencyDistribution distribution) {
+    int[] latencies = new int[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      latencies[i] = distribution.sample(random);
+    }
+    Arrays.sort(latencies);
+    return latencies;
+  }
+
+  private static int percentile(int[] sorted, double percentile) {
+    return sorted[(int) Math.ceil(percentile / 100 * sorted.length) - 1];
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import org.junit.jupiter.api.Test;
+
+class LatencyQueueTest {
+
+  private static final String SERVICE = "com.example.Service.call";
+
+  private final LatencyQueue queue = new LatencyQueue(2, 10_000);
+
+  @Test
+  void callsWithinCapacityOnlyTakeTheirServiceTime() {
+    assertThat(queue.latency(ChaosTarget.SERVICE, SERVICE, 1000)).isCloseTo(1000, within(50));
+    assertThat(queue.latency(ChaosTarget.SERVICE, SERVICE, 1000)).isCloseTo(1000, within(50));
+  }
+
+  @Test
+  void callsBeyondCapacityWaitForEarlierCalls() {
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 1000);
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 2000);
+
+    // waits for the first call, then for the third
+    assertThat(queue.latency(ChaosTarget.SERVICE, SERVICE, 1000)).isCloseTo(2000, within(50));
+    assertThat(queue.latency(ChaosTarget.SERVICE, SERVICE, 1000)).isCloseTo(3000, within(50));
+    assertThat(queue.latency(ChaosTarget.SERVICE, SERVICE, 1000)).isCloseTo(3000, within(50));
+  }
+
+  @Test
+  void targetsHaveTheirOwnQueue() {
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 1000);
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 1000);
+
+    assertThat(queue.latency(ChaosTarget.REPOSITORY, SERVICE, 1000)).isCloseTo(1000, within(50));
+  }
+
+  @Test
+  void signaturesHaveTheirOwnQueue() {
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 1000);
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 1000);
+
+    assertThat(queue.latency(ChaosTarget.SERVICE, "com.example.Service.other", 1000))
+        .isCloseTo(1000, within(50));
+  }
+
+  @Test
+  void outgoingRequestsQueuePerHost() {
+    queue.latency(ChaosTarget.REST_TEMPLATE, "http://localhost:8080/api/hello?name=a", 1000);
+    queue.latency(ChaosTarget.REST_TEMPLATE, "http://localhost:8080/api/other", 1000);
+
+    assertThat(queue.latency(ChaosTarget.REST_TEMPLATE, "http://localhost:8080", 1000))
+        .isCloseTo(2000, within(50));
+    assertThat(queue.latency(ChaosTarget.REST_TEMPLATE, "http://localhost:9090/api/hello", 1000))
+        .isCloseTo(1000, within(50));
+  }
+
+  @Test
+  void namesBeyondTheLimitShareAQueue() {
+    for (int i = 0; i < LatencyQueue.MAX_QUEUES; i++) {
+      queue.latency(ChaosTarget.SERVICE, SERVICE + i, 1);
+    }
+    queue.latency(ChaosTarget.SERVICE, "com.example.Service.first", 1000);
+    queue.latency(ChaosTarget.SERVICE, "com.example.Service.second", 1000);
+
+    assertThat(queue.latency(ChaosTarget.SERVICE, "com.example.Service.third", 1000))
+        .isCloseTo(2000, within(50));
+  }
+
+  @Test
+  void hostIsSchemeAndAuthority() {
+    assertThat(LatencyQueue.host("https://example.com:8443/api?q=1"))
+        .isEqualTo("https://example.com:8443");
+    assertThat(LatencyQueue.host("https://example.com?q=1")).isEqualTo("https://example.com");
+    assertThat(LatencyQueue.host("https://example.com")).isEqualTo("https://example.com");
+  }
+
+  @Test
+  void callsWithoutTargetShareAQueue() {
+    queue.latency(null, null, 1000);
+    queue.latency(null, null, 1000);
+
+    assertThat(queue.latency(null, null, 1000)).isCloseTo(2000, within(50));
+  }
+
+  @Test
+  void waitIsCapped() {
+    LatencyQueue cappedQueue = new LatencyQueue(1, 2000);
+    for (int i = 0; i < 5; i++) {
+      cappedQueue.latency(ChaosTarget.SERVICE, SERVICE, 1000);
+    }
+
+    // waits at most 2 seconds for the calls before it, then takes its own service time
+    assertThat(cappedQueue.latency(ChaosTarget.SERVICE, SERVICE, 1000)).isCloseTo(3000, within(50));
+  }
+
+  @Test
+  void queueDrainsOverTime() throws InterruptedException {
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 100);
+    queue.latency(ChaosTarget.SERVICE, SERVICE, 100);
+
+    Thread.sleep(150);
+
+    assertThat(queue.latency(ChaosTarget.SERVICE, SERVICE, 1000)).isCloseTo(1000, within(50));
+  }
+}
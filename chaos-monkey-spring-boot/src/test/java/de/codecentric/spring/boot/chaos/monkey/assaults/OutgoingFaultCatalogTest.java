@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog.Fault;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFault;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFaultType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class OutgoingFaultCatalogTest {
+
+  @Test
+  void defaultsToInternalServerError() {
+    Fault fault = OutgoingFaultCatalog.of(null).choose();
+
+    assertThat(fault.getType()).isEqualTo(OutgoingFaultType.HTTP_STATUS);
+    assertThat(fault.getStatus()).isEqualTo(500);
+    assertThat(fault.getRetryAfter()).isNull();
+    assertThat(new String(fault.getBody(), StandardCharsets.UTF_8))
+        .isEqualTo(OutgoingFaultCatalog.ERROR_BODY);
+  }
+
+  @Test
+  void choosesFaultsByWeight() {
+    OutgoingFaultCatalog catalog =
+        OutgoingFaultCatalog.of(Arrays.asList(status(503, 6), status(429, 3), status(502, 1)));
+    Map<Integer, Integer> counts = new HashMap<>();
+
+    int samples = 100_000;
+    for (int i = 0; i < samples; i++) {
+      counts.merge(catalog.choose().getStatus(), 1, Integer::sum);
+    }
+
+    assertThat(counts.get(503) / (double) samples).isCloseTo(0.6, within(0.02));
+    assertThat(counts.get(429) / (double) samples).isCloseTo(0.3, within(0.02));
+    assertThat(counts.get(502) / (double) samples).isCloseTo(0.1, within(0.02));
+  }
+
+  @Test
+  void resolvesRetryAfterOnce() {
+    OutgoingFault serviceUnavailable = status(503, 1);
+    serviceUnavailable.setRetryAfter(5);
+
+    Fault fault = OutgoingFaultCatalog.of(Arrays.asList(serviceUnavailable)).choose();
+
+    assertThat(fault.getRetryAfter()).isEqualTo("5");
+  }
+
+  private static OutgoingFault status(int status, int weight) {
+    OutgoingFault outgoingFault = new OutgoingFault();
+    outgoingFault.setStatus(status);
+    outgoingFault.setWeight(weight);
+    return outgoingFault;
+  }
+}
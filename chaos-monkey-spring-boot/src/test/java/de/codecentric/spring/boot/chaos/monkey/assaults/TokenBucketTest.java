@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.assaults;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+  @Test
+  void chunkIsATenthOfTheRate() {
+    assertThat(new TokenBucket(20_000).getChunkSize()).isEqualTo(2000);
+    assertThat(new TokenBucket(5).getChunkSize()).isEqualTo(1);
+    assertThat(new TokenBucket(1_000_000_000).getChunkSize()).isEqualTo(8192);
+  }
+
+  @Test
+  void firstChunkPassesImmediately() {
+    TokenBucket tokenBucket = new TokenBucket(20_000);
+
+    assertThat(tokenBucket.reserve(tokenBucket.getChunkSize())).isZero();
+  }
+
+  @Test
+  void bytesPassAtConfiguredRate() throws InterruptedIOException {
+    TokenBucket tokenBucket = new TokenBucket(20_000);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 5; i++) {
+      tokenBucket.acquire(2000);
+    }
+
+    // the first chunk passes immediately, the other four take a tenth of a second each
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(390));
+  }
+
+  @Test
+  void idleBucketDoesNotSaveUpTokens() throws InterruptedException {
+    TokenBucket tokenBucket = new TokenBucket(20_000);
+
+    Thread.sleep(300);
+
+    assertThat(tokenBucket.reserve(2000)).isZero();
+    assertThat(tokenBucket.reserve(2000)).isGreaterThan(Duration.ofMillis(50).toNanos());
+  }
+
+  @Test
+  void interruptStopsWaiting() {
+    TokenBucket tokenBucket = new TokenBucket(1);
+    Thread.currentThread().interrupt();
+
+    try {
+      assertThatThrownBy(() -> tokenBucket.acquire(10)).isInstanceOf(InterruptedIOException.class);
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void rateMustBePositive() {
+    assertThatThrownBy(() -> new TokenBucket(0)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
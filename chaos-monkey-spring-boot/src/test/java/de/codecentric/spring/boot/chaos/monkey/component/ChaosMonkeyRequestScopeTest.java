@@ -16,22 +16,40 @@
 
 package de.codecentric.spring.boot.chaos.monkey.component;
 
+import static de.codecentric.spring.boot.chaos.monkey.configuration.LatencyDistributionType.NORMAL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
+import de.codecentric.spring.boot.chaos.monkey.assaults.BandwidthAssault;
 import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
 import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionAssault;
 import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyQueue;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultException;
 import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggles;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggleNameMapper;
 import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggles;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -57,28 +75,215 @@ class ChaosMonkeyRequestScopeTest {
 
   @Mock MetricEventPublisher metricEventPublisherMock;
 
+  @Mock Random random;
+
+  WatcherProperties watcherProperties = new WatcherProperties();
+
   @BeforeEach
   void setUpCommon() {
     given(chaosMonkeySettings.getChaosMonkeyProperties()).willReturn(chaosMonkeyProperties);
+    // compiled into every snapshot
+    lenient().when(assaultProperties.getException()).thenReturn(new AssaultException());
+    // mocks don't run the default method, the assaults apply to every target
+    lenient().when(latencyAssault.appliesTo(any())).thenReturn(true);
+    lenient().when(exceptionAssault.appliesTo(any())).thenReturn(true);
 
     chaosMonkeyRequestScope =
-        new ChaosMonkeyRequestScope(
-            chaosMonkeySettings,
+        newScope(
             Arrays.asList(latencyAssault, exceptionAssault),
             Collections.emptyList(),
-            metricEventPublisherMock,
-            new DefaultChaosToggles(),
-            new DefaultChaosToggleNameMapper(chaosMonkeyProperties.getTogglePrefix()));
+            new DefaultChaosToggles());
+  }
+
+  // rolls with the mocked random, which returns 0 unless stubbed
+  ChaosMonkeyRequestScope newScope(
+      List<ChaosMonkeyRequestAssault> assaults,
+      List<ChaosMonkeyAssault> legacyAssaults,
+      ChaosToggles chaosToggles) {
+    return new ChaosMonkeyRequestScope(
+        chaosMonkeySettings,
+        assaults,
+        legacyAssaults,
+        metricEventPublisherMock,
+        chaosToggles,
+        new DefaultChaosToggleNameMapper(chaosMonkeyProperties.getTogglePrefix())) {
+      @Override
+      protected Random random() {
+        return random;
+      }
+    };
   }
 
   @Test
   void givenChaosMonkeyExecutionIsDisabledExpectNoInteractions() {
     given(chaosMonkeyProperties.isEnabled()).willReturn(false);
+    // the enabled flag is read from the snapshot, which is compiled from all settings
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(assaultProperties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
 
     chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-    verify(latencyAssault, never()).attack();
-    verify(exceptionAssault, never()).attack();
+    verify(latencyAssault, never()).attack(any(), any());
+    verify(exceptionAssault, never()).attack(any(), any());
+  }
+
+  @Test
+  void selectAssaultReturnsAssaultWithoutAttacking() {
+    given(chaosMonkeyProperties.isEnabled()).willReturn(true);
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(assaultProperties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    given(assaultProperties.getLevel()).willReturn(1);
+    given(latencyAssault.isActive()).willReturn(true);
+    watcherProperties.setService(true);
+
+    assertThat(
+        chaosMonkeyRequestScope.selectAssault(ChaosTarget.SERVICE, "com.example.Service.call"),
+        is(latencyAssault));
+    verify(latencyAssault, never()).attack(any(), any());
+  }
+
+  @Test
+  void outgoingAssaultsAreOnlyChosenForOutgoingRequests() {
+    given(chaosMonkeyProperties.isEnabled()).willReturn(true);
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(assaultProperties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    given(assaultProperties.getLevel()).willReturn(1);
+    given(latencyAssault.isActive()).willReturn(true);
+    given(assaultProperties.isBandwidthActive()).willReturn(true);
+    given(random.nextInt(2)).willReturn(1);
+    watcherProperties.setService(true);
+    watcherProperties.setRestTemplate(true);
+    BandwidthAssault bandwidthAssault = new BandwidthAssault(chaosMonkeySettings, null);
+    ChaosMonkeyRequestScope scope =
+        newScope(
+            Arrays.asList(latencyAssault, bandwidthAssault),
+            Collections.emptyList(),
+            new DefaultChaosToggles());
+
+    assertThat(
+        scope.selectAssault(ChaosTarget.SERVICE, "com.example.Service.call"), is(latencyAssault));
+    assertThat(
+        scope.selectAssault(ChaosTarget.REST_TEMPLATE, "http://example.com"), is(bandwidthAssault));
+  }
+
+  @Test
+  void updatesArePublishedAsOneSnapshot() {
+    AssaultProperties properties = new AssaultProperties();
+    properties.setLatencyRangeStart(100);
+    properties.setLatencyRangeEnd(200);
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(properties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    chaosMonkeyRequestScope.reloadConfig();
+    long version = chaosMonkeyRequestScope.getSnapshot().getVersion();
+
+    chaosMonkeyRequestScope.updateConfig(
+        settings -> {
+          settings.getAssaultProperties().setLatencyRangeStart(1000);
+          settings.getAssaultProperties().setLatencyRangeEnd(2000);
+          // not yet visible, neither in the snapshot nor in the settings
+          assertThat(chaosMonkeyRequestScope.getSnapshot().getVersion(), is(version));
+          assertThat(properties.getLatencyRangeStart(), is(100));
+        });
+
+    ChaosMonkeySnapshot snapshot = chaosMonkeyRequestScope.getSnapshot();
+    assertThat(snapshot.getVersion(), is(version + 1));
+    assertThat(snapshot.getLatencyRangeStart(), is(1000));
+    assertThat(snapshot.getLatencyRangeEnd(), is(2000));
+    assertThat(properties.getLatencyRangeStart(), is(1000));
+  }
+
+  @Test
+  void latencyQueueIsKeptWhileItsCapacityIsUnchanged() {
+    AssaultProperties properties = new AssaultProperties();
+    properties.setLatencyActive(true);
+    properties.setLatencyQueueCapacity(2);
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(properties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    given(chaosMonkeyProperties.isEnabled()).willReturn(true);
+    LatencyQueue queue = chaosMonkeyRequestScope.getSnapshot().getLatencyQueue();
+
+    chaosMonkeyRequestScope.updateConfig(settings -> settings.getAssaultProperties().setLevel(5));
+    assertThat(chaosMonkeyRequestScope.getSnapshot().getLatencyQueue(), is(sameInstance(queue)));
+
+    chaosMonkeyRequestScope.updateConfig(
+        settings -> settings.getAssaultProperties().setLatencyQueueCapacity(3));
+    assertThat(chaosMonkeyRequestScope.getSnapshot().getLatencyQueue().getCapacity(), is(3));
+  }
+
+  @Test
+  void latencyQueueIsResetWhenChaosMonkeyIsEnabledAgain() {
+    AssaultProperties properties = new AssaultProperties();
+    properties.setLatencyActive(true);
+    properties.setLatencyRangeStart(1000);
+    properties.setLatencyRangeEnd(1000);
+    properties.setLatencyQueueCapacity(1);
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(properties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    given(chaosMonkeyProperties.isEnabled()).willReturn(true);
+    LatencyQueue queue = chaosMonkeyRequestScope.getSnapshot().getLatencyQueue();
+    for (int i = 0; i < 5; i++) {
+      queue.latency(ChaosTarget.SERVICE, "com.example.Service.call", 1000);
+    }
+
+    chaosMonkeyRequestScope.updateConfig(
+        settings -> settings.getChaosMonkeyProperties().setEnabled(false));
+    chaosMonkeyRequestScope.updateConfig(
+        settings -> settings.getChaosMonkeyProperties().setEnabled(true));
+
+    // the calls queued before the monkey was disabled don't delay the next one
+    assertThat(
+        chaosMonkeyRequestScope
+            .getSnapshot()
+            .getLatencyQueue()
+            .latency(ChaosTarget.SERVICE, "com.example.Service.call", 1000),
+        is(lessThanOrEqualTo(1000)));
+  }
+
+  @Test
+  void latencyQueueIsResetWhenTheLatencyChanges() {
+    AssaultProperties properties = new AssaultProperties();
+    properties.setLatencyActive(true);
+    properties.setLatencyQueueCapacity(1);
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(properties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    given(chaosMonkeyProperties.isEnabled()).willReturn(true);
+    LatencyQueue queue = chaosMonkeyRequestScope.getSnapshot().getLatencyQueue();
+
+    chaosMonkeyRequestScope.updateConfig(
+        settings -> settings.getAssaultProperties().setLatencyDistribution(NORMAL));
+
+    assertThat(
+        chaosMonkeyRequestScope.getSnapshot().getLatencyQueue(), is(not(sameInstance(queue))));
+  }
+
+  @Test
+  void enabledFlagIsReadFromTheSnapshot() {
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(new AssaultProperties());
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    assertThat(chaosMonkeyRequestScope.isEnabled(), is(false));
+
+    given(chaosMonkeyProperties.isEnabled()).willReturn(true);
+    assertThat(chaosMonkeyRequestScope.isEnabled(), is(false));
+
+    chaosMonkeyRequestScope.reloadConfig();
+    assertThat(chaosMonkeyRequestScope.isEnabled(), is(true));
+  }
+
+  @Test
+  void updatedListsAreCopied() {
+    AssaultProperties properties = new AssaultProperties();
+    given(chaosMonkeySettings.getAssaultProperties()).willReturn(properties);
+    given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    List<String> services = new ArrayList<>(Collections.singletonList("com.example.Service"));
+
+    chaosMonkeyRequestScope.updateConfig(
+        settings -> settings.getAssaultProperties().setWatchedCustomServices(services));
+    services.add("com.example.Other");
+    chaosMonkeyRequestScope.updateConfig(
+        settings -> settings.getAssaultProperties().getWatchedCustomServices().clear());
+
+    assertThat(services, is(Arrays.asList("com.example.Service", "com.example.Other")));
+    assertThat(properties.getWatchedCustomServices(), is(Collections.emptyList()));
   }
 
   @Nested
@@ -87,31 +292,31 @@ class ChaosMonkeyRequestScopeTest {
     @BeforeEach
     void setUpForChaosMonkeyExecutionEnabled() {
       given(assaultProperties.getLevel()).willReturn(1);
-      given(assaultProperties.getTroubleRandom()).willReturn(1);
       given(chaosMonkeyProperties.isEnabled()).willReturn(true);
       given(chaosMonkeySettings.getAssaultProperties()).willReturn(assaultProperties);
+      given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
     }
 
     @Test
     void allAssaultsActiveExpectLatencyAttack() {
       given(exceptionAssault.isActive()).willReturn(true);
       given(latencyAssault.isActive()).willReturn(true);
-      given(assaultProperties.chooseAssault(2)).willReturn(0);
+      given(random.nextInt(2)).willReturn(0);
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(latencyAssault, times(1)).attack();
+      verify(latencyAssault, times(1)).attack(any(), any());
     }
 
     @Test
     void allAssaultsActiveExpectExceptionAttack() {
       given(exceptionAssault.isActive()).willReturn(true);
       given(latencyAssault.isActive()).willReturn(true);
-      given(assaultProperties.chooseAssault(2)).willReturn(1);
+      given(random.nextInt(2)).willReturn(1);
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(exceptionAssault, times(1)).attack();
+      verify(exceptionAssault, times(1)).attack(any(), any());
     }
 
     @Test
@@ -121,7 +326,7 @@ class ChaosMonkeyRequestScopeTest {
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(latencyAssault, times(1)).attack();
+      verify(latencyAssault, times(1)).attack(any(), any());
     }
 
     @Test
@@ -131,18 +336,18 @@ class ChaosMonkeyRequestScopeTest {
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(exceptionAssault, times(1)).attack();
+      verify(exceptionAssault, times(1)).attack(any(), any());
     }
 
     @Test
     void isExceptionAndLatencyAssaultActiveExpectExceptionAttack() {
       given(exceptionAssault.isActive()).willReturn(true);
       given(latencyAssault.isActive()).willReturn(true);
-      given(assaultProperties.chooseAssault(2)).willReturn(1);
+      given(random.nextInt(2)).willReturn(1);
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(exceptionAssault, times(1)).attack();
+      verify(exceptionAssault, times(1)).attack(any(), any());
     }
 
     @Test
@@ -150,11 +355,11 @@ class ChaosMonkeyRequestScopeTest {
 
       given(exceptionAssault.isActive()).willReturn(true);
       given(latencyAssault.isActive()).willReturn(true);
-      given(assaultProperties.chooseAssault(2)).willReturn(0);
+      given(random.nextInt(2)).willReturn(0);
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(latencyAssault, times(1)).attack();
+      verify(latencyAssault, times(1)).attack(any(), any());
     }
 
     @Test
@@ -164,7 +369,7 @@ class ChaosMonkeyRequestScopeTest {
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(exceptionAssault, times(1)).attack();
+      verify(exceptionAssault, times(1)).attack(any(), any());
     }
 
     @Test
@@ -174,26 +379,43 @@ class ChaosMonkeyRequestScopeTest {
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(latencyAssault, times(1)).attack();
+      verify(latencyAssault, times(1)).attack(any(), any());
     }
 
     @Test
     void givenNoAssaultsActiveExpectNoAttack() {
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(latencyAssault, never()).attack();
-      verify(exceptionAssault, never()).attack();
+      verify(latencyAssault, never()).attack(any(), any());
+      verify(exceptionAssault, never()).attack(any(), any());
     }
 
     @Test
     void givenAssaultLevelTooHighExpectNoLogging() {
       given(assaultProperties.getLevel()).willReturn(1000);
-      given(assaultProperties.getTroubleRandom()).willReturn(9);
 
       chaosMonkeyRequestScope.callChaosMonkey(null, null);
 
-      verify(latencyAssault, never()).attack();
-      verify(exceptionAssault, never()).attack();
+      verify(latencyAssault, never()).attack(any(), any());
+      verify(exceptionAssault, never()).attack(any(), any());
+    }
+
+    @Test
+    void givenAssaultLevelTooHighExpectTogglesNotEvaluated() {
+      ChaosToggles chaosToggles = mock(ChaosToggles.class);
+      ChaosMonkeyRequestScope customScope =
+          newScope(
+              Arrays.asList(latencyAssault, exceptionAssault),
+              Collections.emptyList(),
+              chaosToggles);
+      watcherProperties.setService(true);
+      given(assaultProperties.getLevel()).willReturn(1000);
+
+      customScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+
+      verifyNoInteractions(chaosToggles);
+      verify(latencyAssault, never()).attack(any(), any());
+      verify(exceptionAssault, never()).attack(any(), any());
     }
 
     @Test
@@ -207,8 +429,8 @@ class ChaosMonkeyRequestScopeTest {
 
       chaosMonkeyRequestScope.callChaosMonkey(null, "notInListService");
 
-      verify(latencyAssault, never()).attack();
-      verify(exceptionAssault, never()).attack();
+      verify(latencyAssault, never()).attack(any(), any());
+      verify(exceptionAssault, never()).attack(any(), any());
     }
 
     @Test
@@ -221,12 +443,71 @@ class ChaosMonkeyRequestScopeTest {
       given(chaosMonkeySettings.getAssaultProperties().isWatchedCustomServicesActive())
           .willReturn(true);
       given(latencyAssault.isActive()).willReturn(true);
-      given(assaultProperties.chooseAssault(2)).willReturn(0);
+      given(random.nextInt(2)).willReturn(0);
 
       chaosMonkeyRequestScope.callChaosMonkey(null, customService);
 
-      verify(latencyAssault, times(1)).attack();
-      verify(exceptionAssault, never()).attack();
+      verify(latencyAssault, times(1)).attack(any(), any());
+      verify(exceptionAssault, never()).attack(any(), any());
+    }
+
+    @Test
+    void changedPropertiesAreOnlyUsedAfterReload() {
+      given(latencyAssault.isActive()).willReturn(true);
+
+      chaosMonkeyRequestScope.callChaosMonkey(null, "foo");
+      long version = chaosMonkeyRequestScope.getSnapshot().getVersion();
+
+      given(latencyAssault.isActive()).willReturn(false);
+      given(exceptionAssault.isActive()).willReturn(true);
+      chaosMonkeyRequestScope.callChaosMonkey(null, "foo");
+
+      chaosMonkeyRequestScope.reloadConfig();
+      chaosMonkeyRequestScope.callChaosMonkey(null, "foo");
+
+      verify(latencyAssault, times(2)).attack(any(), any());
+      verify(exceptionAssault, times(1)).attack(any(), any());
+      verify(exceptionAssault).reloadConfig(chaosMonkeyRequestScope.getSnapshot());
+      assertThat(chaosMonkeyRequestScope.getSnapshot().getVersion(), is(version + 1));
+    }
+
+    @Test
+    void healthIndicatorsAreAttackedWithoutWatcherSwitch() {
+      given(latencyAssault.isActive()).willReturn(true);
+
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.ACTUATOR_HEALTH, "foo");
+
+      verify(latencyAssault).attack(ChaosTarget.ACTUATOR_HEALTH, "foo");
+    }
+
+    @Test
+    void propertiesChangedThroughSettersAreOnlyUsedAfterReload() {
+      given(latencyAssault.isActive()).willReturn(true);
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+      long version = chaosMonkeyRequestScope.getSnapshot().getVersion();
+
+      watcherProperties.setService(true);
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+      chaosMonkeyRequestScope.reloadConfig();
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+
+      verify(latencyAssault, times(1)).attack(ChaosTarget.SERVICE, "foo");
+      assertThat(chaosMonkeyRequestScope.getSnapshot().getVersion(), is(version + 1));
+    }
+
+    @Test
+    void replacedPropertiesAreUsedAfterReload() {
+      given(latencyAssault.isActive()).willReturn(true);
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+
+      WatcherProperties replacedWatcherProperties = new WatcherProperties();
+      replacedWatcherProperties.setService(true);
+      given(chaosMonkeySettings.getWatcherProperties()).willReturn(replacedWatcherProperties);
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+      chaosMonkeyRequestScope.reloadConfig();
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+
+      verify(latencyAssault, times(1)).attack(ChaosTarget.SERVICE, "foo");
     }
 
     @Test
@@ -235,16 +516,32 @@ class ChaosMonkeyRequestScopeTest {
       ChaosMonkeyAssault customAssault = mock(ChaosMonkeyAssault.class);
       given(customAssault.isActive()).willReturn(true);
       ChaosMonkeyRequestScope customScope =
-          new ChaosMonkeyRequestScope(
-              chaosMonkeySettings,
+          newScope(
               Collections.emptyList(),
               Collections.singletonList(customAssault),
-              metricEventPublisherMock,
-              new DefaultChaosToggles(),
-              new DefaultChaosToggleNameMapper(chaosMonkeyProperties.getTogglePrefix()));
+              new DefaultChaosToggles());
 
       customScope.callChaosMonkey(null, "foo");
       verify(customAssault).attack();
     }
   }
+
+  @Nested
+  class GivenWatcherIsDisabled {
+
+    @BeforeEach
+    void setUpForWatcherDisabled() {
+      given(chaosMonkeyProperties.isEnabled()).willReturn(true);
+      given(chaosMonkeySettings.getAssaultProperties()).willReturn(assaultProperties);
+      given(chaosMonkeySettings.getWatcherProperties()).willReturn(watcherProperties);
+    }
+
+    @Test
+    void watcherDisabledInSnapshotExpectNoAttack() {
+      chaosMonkeyRequestScope.callChaosMonkey(ChaosTarget.SERVICE, "foo");
+
+      verify(latencyAssault, never()).attack(any(), any());
+      verify(exceptionAssault, never()).attack(any(), any());
+    }
+  }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import de.codecentric.spring.boot.chaos.monkey.events.MetricEvent;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class MetricEventPublisherTest {
+
+  @Mock private ChaosMetricsSink metricsSink;
+
+  @Mock private ApplicationEventPublisher applicationEventPublisher;
+
+  @Test
+  void metricsArePassedToTheSinkWithoutEvents() {
+    MetricEventPublisher sut = new MetricEventPublisher(metricsSink);
+    sut.setApplicationEventPublisher(applicationEventPublisher);
+
+    sut.publishMetricEvent("execution.DemoService.sayHello", MetricType.SERVICE);
+    sut.publishMetricEvent(MetricType.APPLICATION_REQ_COUNT, "type", "total");
+    sut.publishMetricEvent(MetricType.LATENCY_ASSAULT, new AtomicInteger(1000));
+    sut.publishMetricEvent(MetricType.MEMORY_ASSAULT_MEMORY_STOLEN, 42L);
+
+    verify(metricsSink).recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+    verify(metricsSink).recordCount(MetricType.APPLICATION_REQ_COUNT, "type", "total");
+    verify(metricsSink).recordValue(MetricType.LATENCY_ASSAULT, 1000);
+    verify(metricsSink).recordValue(MetricType.MEMORY_ASSAULT_MEMORY_STOLEN, 42L);
+    verifyNoInteractions(applicationEventPublisher);
+  }
+
+  @Test
+  void metricsArePublishedAsEventsWithoutSink() {
+    MetricEventPublisher sut = new MetricEventPublisher();
+    sut.setApplicationEventPublisher(applicationEventPublisher);
+
+    sut.publishMetricEvent("execution.DemoService.sayHello", MetricType.SERVICE);
+
+    verify(applicationEventPublisher).publishEvent(any(MetricEvent.class));
+  }
+}
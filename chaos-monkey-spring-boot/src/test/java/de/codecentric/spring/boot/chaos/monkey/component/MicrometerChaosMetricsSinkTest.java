@@ -0,0 +1,233 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MicrometerChaosMetricsSinkTest {
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private MicrometerChaosMetricsSink sut;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    sut = new MicrometerChaosMetricsSink(meterRegistry);
+  }
+
+  @Test
+  void watcherCallsAreCountedPerComponent() {
+    sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+    sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+    sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayGoodbye");
+
+    assertEquals(
+        2.0,
+        meterRegistry
+            .get("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.sayHello")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.sayGoodbye")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void countsAreKeptPerTags() {
+    sut.recordCount(MetricType.APPLICATION_REQ_COUNT, "type", "total");
+    sut.recordCount(MetricType.APPLICATION_REQ_COUNT, "type", "total");
+    sut.recordCount(MetricType.APPLICATION_REQ_COUNT, "type", "assaulted");
+    sut.recordCount(MetricType.LATENCY_ASSAULT);
+
+    assertEquals(
+        2.0,
+        meterRegistry
+            .get("chaos.monkey.application.request.count")
+            .tag("type", "total")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("chaos.monkey.application.request.count")
+            .tag("type", "assaulted")
+            .functionCounter()
+            .count());
+    assertEquals(
+        1.0, meterRegistry.get("chaos.monkey.assault.latency.count").functionCounter().count());
+  }
+
+  @Test
+  void valuesReplaceThePreviousValue() {
+    sut.recordValue(MetricType.LATENCY_ASSAULT, 1000);
+    sut.recordValue(MetricType.LATENCY_ASSAULT, 2500);
+
+    assertEquals(
+        2500.0, meterRegistry.get("chaos.monkey.assault.latency.count.gauge.").gauge().value());
+  }
+
+  @Test
+  void boundedModeExportsOnlyTheHottestComponents() {
+    sut = new MicrometerChaosMetricsSink(meterRegistry, 1, 3, 10);
+
+    for (int i = 0; i < 5; i++) {
+      sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+    }
+    sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayGoodbye");
+    sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayGoodbye");
+    for (int i = 0; i < 5; i++) {
+      sut.recordWatcherCall(MetricType.SERVICE, "execution.OtherService.call" + i);
+    }
+
+    // the first two calls were counted before the component got its own meter
+    assertEquals(
+        3.0,
+        meterRegistry
+            .get("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.sayHello")
+            .functionCounter()
+            .count());
+    assertEquals(
+        9.0,
+        meterRegistry
+            .get("chaos.monkey.service.watcher")
+            .tag("component", "other")
+            .functionCounter()
+            .count());
+    assertNull(
+        meterRegistry
+            .find("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.sayGoodbye")
+            .functionCounter());
+
+    List<WatchedComponentCount> components = sut.getWatchedComponentCounts();
+    WatchedComponentCount hottest = components.get(0);
+    assertEquals("DemoService.sayHello", hottest.getComponent());
+    assertTrue(hottest.isExported());
+    WatchedComponentCount second = components.get(1);
+    assertEquals("DemoService.sayGoodbye", second.getComponent());
+    assertEquals(2, second.getCount());
+    assertFalse(second.isExported());
+  }
+
+  @Test
+  void boundedModeReplacesLessCalledComponents() {
+    sut = new MicrometerChaosMetricsSink(meterRegistry, 1, 3, 10);
+
+    for (int i = 0; i < 3; i++) {
+      sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+    }
+    for (int i = 0; i < MicrometerChaosMetricsSink.REBALANCE_INTERVAL; i++) {
+      sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayGoodbye");
+    }
+    sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+
+    // the replaced component loses its series, its further calls are counted as other
+    assertNull(
+        meterRegistry
+            .find("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.sayHello")
+            .functionCounter());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.sayGoodbye")
+            .functionCounter()
+            .count());
+    // two calls of each before the promotion threshold, 125 more of sayGoodbye before it replaced
+    // sayHello and the one of sayHello afterwards
+    assertEquals(
+        130.0,
+        meterRegistry
+            .get("chaos.monkey.service.watcher")
+            .tag("component", "other")
+            .functionCounter()
+            .count());
+    assertFalse(
+        sut.getWatchedComponentCounts().stream()
+            .filter(count -> count.getComponent().equals("DemoService.sayHello"))
+            .anyMatch(WatchedComponentCount::isExported));
+  }
+
+  @Test
+  void boundedModeRegistersANewMeterForAReExportedComponent() {
+    sut = new MicrometerChaosMetricsSink(meterRegistry, 1, 1, 10);
+
+    sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+    for (int i = 0; i < MicrometerChaosMetricsSink.REBALANCE_INTERVAL; i++) {
+      sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayGoodbye");
+    }
+    // the last call exports it again, once it was called more often than sayGoodbye
+    for (int i = 1; i < 2 * MicrometerChaosMetricsSink.REBALANCE_INTERVAL; i++) {
+      sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.sayHello");
+    }
+
+    // only the call that exported it again, the meter of its first export was removed
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.sayHello")
+            .functionCounter()
+            .count());
+    assertTrue(
+        sut.getWatchedComponentCounts().stream()
+            .filter(count -> count.getComponent().equals("DemoService.sayHello"))
+            .anyMatch(WatchedComponentCount::isExported));
+  }
+
+  @Test
+  void boundedModeExportsAtMostTopKAndOtherSeries() {
+    sut = new MicrometerChaosMetricsSink(meterRegistry, 2, 1, 100);
+
+    // each component is called more often than the ones before, so it replaces one of them
+    for (int component = 0; component < 6; component++) {
+      for (int i = 0; i < (component + 1) * MicrometerChaosMetricsSink.REBALANCE_INTERVAL; i++) {
+        sut.recordWatcherCall(MetricType.SERVICE, "execution.DemoService.call" + component);
+      }
+    }
+
+    assertEquals(3, meterRegistry.find("chaos.monkey.service.watcher").functionCounters().size());
+    assertNotNull(
+        meterRegistry
+            .find("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.call5")
+            .functionCounter());
+    assertNull(
+        meterRegistry
+            .find("chaos.monkey.service.watcher")
+            .tag("component", "DemoService.call0")
+            .functionCounter());
+  }
+}
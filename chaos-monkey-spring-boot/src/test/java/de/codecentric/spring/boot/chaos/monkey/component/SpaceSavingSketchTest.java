@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingSketchTest {
+
+  @Test
+  void countsAreExactWhileThereAreFreeCounters() {
+    SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+
+    sketch.offer("a");
+    sketch.offer("b");
+    assertEquals(2, sketch.offer("a"));
+
+    List<SpaceSavingSketch.Entry> entries = sketch.entries();
+    assertEquals("a", entries.get(0).getItem());
+    assertEquals(2, entries.get(0).getCount());
+    assertEquals(0, entries.get(0).getError());
+  }
+
+  @Test
+  void newItemReplacesTheLeastFrequentOne() {
+    SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+
+    sketch.offer("a");
+    sketch.offer("a");
+    sketch.offer("a");
+    sketch.offer("b");
+
+    // c takes over the counter of b and may be overestimated by b's count
+    assertEquals(1, sketch.offer("c"));
+
+    List<SpaceSavingSketch.Entry> entries = sketch.entries();
+    assertEquals(2, entries.size());
+    assertEquals("a", entries.get(0).getItem());
+    assertEquals("c", entries.get(1).getItem());
+    assertEquals(2, entries.get(1).getCount());
+    assertEquals(1, entries.get(1).getError());
+  }
+
+  @Test
+  void heavyHitterSurvivesManyRareItems() {
+    SpaceSavingSketch sketch = new SpaceSavingSketch(1024);
+
+    for (int i = 0; i < 5000; i++) {
+      sketch.offer("rare" + i);
+      if (i % 50 == 0) {
+        sketch.offer("hot");
+      }
+    }
+
+    List<SpaceSavingSketch.Entry> entries = sketch.entries();
+    assertEquals(1024, entries.size());
+    assertEquals("hot", entries.get(0).getItem());
+    assertTrue(entries.get(0).getCount() >= 100);
+    for (int i = 1; i < entries.size(); i++) {
+      assertTrue(entries.get(i - 1).getCount() >= entries.get(i).getCount());
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.component;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class WatchedCustomServicesMatcherTest {
+
+  @Test
+  void exactNamesMatchOnlyTheFullSignature() {
+    WatchedCustomServicesMatcher matcher =
+        matcher("com.example.HelloController.sayHello", "com.example.HelloController.sayGoodbye");
+
+    assertTrue(matcher.matches("com.example.HelloController.sayHello"));
+    assertTrue(matcher.matches("com.example.HelloController.sayGoodbye"));
+    assertFalse(matcher.matches("com.example.HelloController.sayHelloAgain"));
+    assertFalse(matcher.matches("com.example.HelloController"));
+    assertFalse(matcher.matches(null));
+  }
+
+  @Test
+  void trailingDoubleWildcardMatchesPrefix() {
+    WatchedCustomServicesMatcher matcher =
+        matcher("com.example.controller.**", "http://localhost:8080/api/**");
+
+    assertTrue(matcher.matches("com.example.controller.HelloController.sayHello"));
+    assertTrue(matcher.matches("http://localhost:8080/api/hello?name=monkey"));
+    assertFalse(matcher.matches("com.example.service.HelloService.sayHello"));
+    assertFalse(matcher.matches("http://localhost:8080/health"));
+  }
+
+  @Test
+  void questionMarkWithoutStarIsMatchedLiterally() {
+    WatchedCustomServicesMatcher matcher = matcher("http://localhost:8080/api/hello?name=monkey");
+
+    assertTrue(matcher.matches("http://localhost:8080/api/hello?name=monkey"));
+    assertFalse(matcher.matches("http://localhost:8080/api/helloXname=monkey"));
+  }
+
+  @Test
+  void singleWildcardStaysWithinOneSegment() {
+    WatchedCustomServicesMatcher matcher =
+        matcher("com.example.*Controller.say*", "https://*.example.com/orders/*");
+
+    assertTrue(matcher.matches("com.example.HelloController.sayHello"));
+    assertTrue(matcher.matches("https://shop.example.com/orders/42"));
+    assertFalse(matcher.matches("com.example.web.HelloController.sayHello"));
+    assertFalse(matcher.matches("com.example.HelloController.greet"));
+    assertFalse(matcher.matches("https://shop.example.com/orders/42/items"));
+  }
+
+  @Test
+  void doubleWildcardAndQuestionMarkInTheMiddle() {
+    WatchedCustomServicesMatcher matcher = matcher("com.**.HelloService.say?ello");
+
+    assertTrue(matcher.matches("com.example.deep.HelloService.sayHello"));
+    assertTrue(matcher.matches("com.example.HelloService.sayJello"));
+    assertFalse(matcher.matches("com.example.HelloService.sayello"));
+  }
+
+  @Test
+  void regexEntriesAreUsedAsIs() {
+    WatchedCustomServicesMatcher matcher =
+        matcher("regex:com\\.example\\.(Hello|Bye)Controller\\..*", "regex:([invalid");
+
+    assertTrue(matcher.matches("com.example.ByeController.sayGoodbye"));
+    assertFalse(matcher.matches("com.example.OtherController.sayGoodbye"));
+  }
+
+  @Test
+  void repeatedLookupsGiveTheSameResult() {
+    WatchedCustomServicesMatcher matcher = matcher("com.example.**");
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(matcher.matches("com.example.HelloController.sayHello"));
+      assertFalse(matcher.matches("org.example.HelloController.sayHello"));
+    }
+  }
+
+  private WatchedCustomServicesMatcher matcher(String... entries) {
+    return new WatchedCustomServicesMatcher(Arrays.asList(entries));
+  }
+}
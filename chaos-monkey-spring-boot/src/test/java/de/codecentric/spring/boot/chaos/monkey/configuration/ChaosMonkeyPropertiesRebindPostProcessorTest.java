@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import org.junit.jupiter.api.Test;
+
+class ChaosMonkeyPropertiesRebindPostProcessorTest {
+
+  private final ChaosMonkeyPropertiesRebindPostProcessor postProcessor =
+      new ChaosMonkeyPropertiesRebindPostProcessor();
+
+  private final ChaosMonkeyRequestScope requestScope = mock(ChaosMonkeyRequestScope.class);
+
+  @Test
+  void firstBindingIsNotReloaded() {
+    postProcessor.postProcessAfterInitialization(new AssaultProperties(), "assaultProperties");
+    postProcessor.postProcessAfterInitialization(requestScope, "chaosMonkeyRequestScope");
+
+    verifyNoInteractions(requestScope);
+  }
+
+  @Test
+  void reloadsOncePerBoundProperties() {
+    postProcessor.postProcessAfterInitialization(requestScope, "chaosMonkeyRequestScope");
+
+    postProcessor.postProcessAfterInitialization(new ChaosMonkeyProperties(), "chaosMonkey");
+    postProcessor.postProcessAfterInitialization(new AssaultProperties(), "assaultProperties");
+    postProcessor.postProcessAfterInitialization(new WatcherProperties(), "watcherProperties");
+    postProcessor.postProcessAfterInitialization(new Object(), "other");
+
+    verify(requestScope, times(3)).reloadConfig();
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.PingHealthIndicator;
+
+class ChaosMonkeyWatcherConfigurationTest {
+
+  @SuppressWarnings("unchecked")
+  private final ChaosMonkeyWatcherConfiguration configuration =
+      new ChaosMonkeyWatcherConfiguration(
+          new WatcherProperties(), mock(ObjectProvider.class), mock(ObjectProvider.class));
+
+  @Test
+  void healthIndicatorsAreWatchedByDefault() {
+    assertThat(AopUtils.canApply(configuration.healthIndicatorWatcher(), PingHealthIndicator.class))
+        .isTrue();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.CachingChaosToggles;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.InMemoryChaosToggles;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+class ChaosToggleCacheConfigurationTest {
+
+  private final ApplicationContextRunner contextRunner =
+      new ApplicationContextRunner()
+          .withConfiguration(
+              AutoConfigurations.of(
+                  MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class))
+          .withUserConfiguration(ChaosMonkeyConfiguration.class)
+          .withBean(InMemoryChaosToggles.class)
+          .withPropertyValues("spring.profiles.active=chaos-monkey");
+
+  @Test
+  void togglesBeanIsNotReplacedByTheCache() {
+    contextRunner
+        .withPropertyValues("chaos.monkey.toggle.cache.enabled=true")
+        .run(
+            context -> {
+              assertThat(context).hasSingleBean(InMemoryChaosToggles.class);
+              assertThat(context).doesNotHaveBean(CachingChaosToggles.class);
+              assertThat(context.getBean(ChaosMonkeyRequestScope.class).getChaosToggles())
+                  .isInstanceOf(CachingChaosToggles.class);
+              MeterRegistry registry = context.getBean(MeterRegistry.class);
+              assertThat(registry.find("chaos.monkey.toggle.cache").meters()).hasSize(2);
+            });
+  }
+
+  @Test
+  void cacheRefreshIsCancelledWhenTheScopeIsDestroyed() {
+    contextRunner
+        .withPropertyValues("chaos.monkey.toggle.cache.enabled=true")
+        .run(
+            context -> {
+              List<Runnable> scheduledTasks =
+                  new ArrayList<>(
+                      context
+                          .getBean(ThreadPoolTaskScheduler.class)
+                          .getScheduledThreadPoolExecutor()
+                          .getQueue());
+              assertThat(scheduledTasks)
+                  .isNotEmpty()
+                  .noneMatch(it -> ((Future<?>) it).isCancelled());
+
+              // the scheduler is still running, only the cache can have cancelled its refresh
+              ((DefaultListableBeanFactory) context.getBeanFactory())
+                  .destroySingleton("chaosMonkeyRequestScope");
+
+              assertThat(scheduledTasks).allMatch(it -> ((Future<?>) it).isCancelled());
+              assertThat(context.getBean(ThreadPoolTaskScheduler.class).getScheduledExecutor())
+                  .matches(executor -> !executor.isShutdown());
+            });
+  }
+
+  @Test
+  void togglesAreNotCachedByDefault() {
+    contextRunner.run(
+        context ->
+            assertThat(context.getBean(ChaosMonkeyRequestScope.class).getChaosToggles())
+                .isInstanceOf(InMemoryChaosToggles.class));
+  }
+}
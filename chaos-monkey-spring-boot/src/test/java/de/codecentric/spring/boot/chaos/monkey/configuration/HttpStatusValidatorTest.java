@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+
+class HttpStatusValidatorTest {
+
+  final HttpStatusValidator httpStatusValidator = new HttpStatusValidator();
+
+  @Test
+  void knownStatusIsValid() {
+    assertThat(httpStatusValidator.isValid(503, null), CoreMatchers.is(true));
+  }
+
+  @Test
+  void unknownStatusIsNotValid() {
+    assertThat(httpStatusValidator.isValid(599, null), CoreMatchers.is(false));
+  }
+}
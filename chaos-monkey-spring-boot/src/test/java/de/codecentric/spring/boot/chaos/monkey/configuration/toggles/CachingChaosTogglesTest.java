@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.configuration.toggles;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingChaosTogglesTest {
+
+  private InMemoryChaosToggles toggles;
+
+  private CachingChaosToggles sut;
+
+  @BeforeEach
+  public void setup() {
+    toggles = spy(new InMemoryChaosToggles());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    if (sut != null) {
+      sut.destroy();
+    }
+  }
+
+  @Test
+  public void decisionIsOnlyEvaluatedOnce() {
+    sut = new CachingChaosToggles(toggles, Duration.ofHours(1));
+    toggles.enable("chaos.monkey.service");
+
+    assertTrue(sut.isEnabled("chaos.monkey.service"));
+    assertTrue(sut.isEnabled("chaos.monkey.service"));
+    assertTrue(sut.isEnabled("chaos.monkey.service"));
+
+    verify(toggles, times(1)).isEnabled("chaos.monkey.service");
+    assertEquals(2, sut.getHits());
+    assertEquals(1, sut.getMisses());
+  }
+
+  @Test
+  public void refreshPicksUpChangedToggles() {
+    sut = new CachingChaosToggles(toggles, Duration.ofHours(1));
+
+    assertFalse(sut.isEnabled("chaos.monkey.service"));
+    toggles.enable("chaos.monkey.service");
+    assertFalse(sut.isEnabled("chaos.monkey.service"));
+
+    sut.refresh();
+
+    assertTrue(sut.isEnabled("chaos.monkey.service"));
+    assertEquals(1, sut.getRefreshes());
+  }
+
+  @Test
+  public void decisionsAreCachedPerContext() {
+    AtomicReference<String> user = new AtomicReference<>("alice");
+    sut = new CachingChaosToggles(toggles, Duration.ofHours(1), 100, user::get);
+
+    assertFalse(sut.isEnabled("chaos.monkey.service"));
+    toggles.enable("chaos.monkey.service");
+    assertFalse(sut.isEnabled("chaos.monkey.service"));
+
+    user.set("bob");
+    assertTrue(sut.isEnabled("chaos.monkey.service"));
+    verify(toggles, times(2)).isEnabled("chaos.monkey.service");
+  }
+
+  @Test
+  public void contextDecisionsExpire() throws InterruptedException {
+    AtomicReference<String> user = new AtomicReference<>("alice");
+    sut = new CachingChaosToggles(toggles, Duration.ofMillis(1), 100, user::get);
+
+    assertFalse(sut.isEnabled("chaos.monkey.service"));
+    toggles.enable("chaos.monkey.service");
+    Thread.sleep(5);
+
+    assertTrue(sut.isEnabled("chaos.monkey.service"));
+  }
+
+  @Test
+  public void ttlHasToBePositive() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new CachingChaosToggles(toggles, Duration.ZERO));
+  }
+}
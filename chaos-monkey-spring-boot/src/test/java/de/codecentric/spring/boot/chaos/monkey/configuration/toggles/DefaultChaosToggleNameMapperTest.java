@@ -26,4 +26,11 @@ class DefaultChaosToggleNameMapperTest {
         sut.mapName(ChaosTarget.REPOSITORY, "com.example.MyController.hello"),
         "toggle.prefix.repository");
   }
+
+  @Test
+  public void toggleNamesAreReused() {
+    assertSame(
+        sut.mapName(ChaosTarget.SERVICE, "com.example.MyService.hello"),
+        sut.mapName(ChaosTarget.SERVICE, "com.example.MyService.goodbye"));
+  }
 }
@@ -19,11 +19,19 @@ package de.codecentric.spring.boot.chaos.monkey.endpoints;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
 import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
 import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggleNameMapper;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.ChaosToggles;
+import java.util.Collections;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -34,6 +42,8 @@ class ChaosMonkeyRequestScopeJmxEndpointTest {
 
   private ChaosMonkeySettings chaosMonkeySettings;
 
+  private ChaosMonkeyRequestScope requestScope;
+
   @BeforeEach
   void setUp() {
     AssaultProperties assaultProperties = new AssaultProperties();
@@ -46,7 +56,16 @@ class ChaosMonkeyRequestScopeJmxEndpointTest {
     chaosMonkeyProperties.setEnabled(true);
     chaosMonkeySettings =
         new ChaosMonkeySettings(chaosMonkeyProperties, assaultProperties, watcherProperties);
-    chaosMonkeyJmxEndpoint = new ChaosMonkeyJmxEndpoint(chaosMonkeySettings);
+    requestScope =
+        spy(
+            new ChaosMonkeyRequestScope(
+                chaosMonkeySettings,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                null,
+                mock(ChaosToggles.class),
+                mock(ChaosToggleNameMapper.class)));
+    chaosMonkeyJmxEndpoint = new ChaosMonkeyJmxEndpoint(chaosMonkeySettings, requestScope);
   }
 
   @Test
@@ -64,6 +83,7 @@ class ChaosMonkeyRequestScopeJmxEndpointTest {
 
     assertThat(
         chaosMonkeyJmxEndpoint.getAssaultProperties().getLatencyActive(), not(latencyActive));
+    verify(requestScope).updateConfig(any());
   }
 
   @Test
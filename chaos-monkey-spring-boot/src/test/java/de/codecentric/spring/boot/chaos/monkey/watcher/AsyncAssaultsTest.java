@@ -0,0 +1,273 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssaultExecutor;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+class AsyncAssaultsTest {
+
+  private final LatencyAssaultExecutor executor = new LatencyAssaultExecutor();
+
+  private final LatencyAssault assault =
+      new LatencyAssault(
+          new ChaosMonkeySettings(
+              new ChaosMonkeyProperties(), new AssaultProperties(), new WatcherProperties()),
+          null,
+          executor);
+
+  private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+  @AfterEach
+  void resetRequest() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void futureCompletesAfterLatencyOffTheTimerThread() throws Exception {
+    CompletableFuture<String> completingThread = new CompletableFuture<>();
+
+    long start = System.nanoTime();
+    @SuppressWarnings("unchecked")
+    CompletableFuture<String> delayed =
+        (CompletableFuture<String>)
+            AsyncAssaults.delay(CompletableFuture.completedFuture("hello"), assault, 300);
+    delayed.thenRun(() -> completingThread.complete(Thread.currentThread().getName()));
+
+    // slow dependent actions must not hold up the timer thread
+    assertThat(completingThread.get(5, TimeUnit.SECONDS)).isNotEqualTo("chaos-monkey-latency");
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+    assertThat(delayed.get()).isEqualTo("hello");
+  }
+
+  @Test
+  void slowDependentActionDoesNotDelayOtherResults() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<?> slow =
+        ((CompletableFuture<?>)
+                AsyncAssaults.delay(CompletableFuture.completedFuture("slow"), assault, 50))
+            .thenRun(
+                () -> {
+                  try {
+                    release.await(5, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                });
+    CompletableFuture<?> other =
+        (CompletableFuture<?>)
+            AsyncAssaults.delay(CompletableFuture.completedFuture("other"), assault, 100);
+
+    try {
+      assertThat(other.get(2, TimeUnit.SECONDS)).isEqualTo("other");
+      assertThat(slow).isNotDone();
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void futureFailsAfterLatency() {
+    CompletableFuture<String> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IllegalStateException("boom"));
+
+    CompletableFuture<?> delayed = (CompletableFuture<?>) AsyncAssaults.delay(failed, assault, 100);
+
+    assertThat(delayed)
+        .failsWithin(Duration.ofSeconds(5))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void cancellingDelayedFutureCancelsOriginal() {
+    CompletableFuture<String> original = new CompletableFuture<>();
+
+    ((CompletableFuture<?>) AsyncAssaults.delay(original, assault, 100)).cancel(true);
+
+    assertThat(original).isCancelled();
+  }
+
+  @Test
+  void futureCompletesOnceLatencyIsCancelled() throws Exception {
+    CompletableFuture<?> delayed =
+        (CompletableFuture<?>)
+            AsyncAssaults.delay(CompletableFuture.completedFuture("hello"), assault, 10_000);
+
+    // Chaos Monkey is disabled in the settings, so the second snapshot cancels the latencies
+    assault.reloadConfig(mock(ChaosMonkeySnapshot.class));
+    assault.reloadConfig(mock(ChaosMonkeySnapshot.class));
+
+    assertThat(delayed.get(5, TimeUnit.SECONDS)).isEqualTo("hello");
+  }
+
+  @Test
+  void deferredResultIsKeptAndItsResultIsDelayed() throws Exception {
+    DeferredResult<String> original = new DeferredResult<>();
+    WebAsyncManager asyncManager = bindRequest();
+
+    assertThat(AsyncAssaults.delay(original, assault, 300)).isSameAs(original);
+    asyncManager.startDeferredResultProcessing(original);
+    long start = System.nanoTime();
+    original.setResult("hello");
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+    assertThat(asyncManager.getConcurrentResult()).isEqualTo("hello");
+  }
+
+  @Test
+  void deferredResultKeepsTimeoutAndCallbacks() throws Exception {
+    DeferredResult<String> original = new DeferredResult<>(5000L, "timed out");
+    AtomicBoolean timedOut = new AtomicBoolean();
+    AtomicBoolean completed = new AtomicBoolean();
+    original.onTimeout(() -> timedOut.set(true));
+    WebAsyncManager asyncManager = bindRequest();
+
+    AsyncAssaults.delay(original, assault, 100);
+    // registered after the result was returned
+    original.onCompletion(() -> completed.set(true));
+    asyncManager.startDeferredResultProcessing(original);
+    MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+    assertThat(asyncContext.getTimeout()).isEqualTo(5000L);
+
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onTimeout(new AsyncEvent(asyncContext));
+    }
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onComplete(new AsyncEvent(asyncContext));
+    }
+
+    assertThat(timedOut).isTrue();
+    assertThat(completed).isTrue();
+    assertThat(asyncManager.getConcurrentResult()).isEqualTo("timed out");
+  }
+
+  @Test
+  void deferredResultIsDelayedBeforeItIsReturnedOutsideOfRequests() {
+    DeferredResult<String> original = new DeferredResult<>();
+
+    long start = System.nanoTime();
+    assertThat(AsyncAssaults.delay(original, assault, 300)).isSameAs(original);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+  }
+
+  @Test
+  void webAsyncTaskIsKeptAndItsCallableWaits() throws Exception {
+    AtomicBoolean completed = new AtomicBoolean();
+    // runs the callable on the calling thread
+    WebAsyncTask<String> original =
+        new WebAsyncTask<>(5000L, new ConcurrentTaskExecutor(Runnable::run), () -> "hello");
+    original.onCompletion(() -> completed.set(true));
+    WebAsyncManager asyncManager = bindRequest();
+
+    assertThat(AsyncAssaults.delay(original, assault, 300)).isSameAs(original);
+    long start = System.nanoTime();
+    asyncManager.startCallableProcessing(original);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+    assertThat(asyncManager.getConcurrentResult()).isEqualTo("hello");
+    MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+    assertThat(asyncContext.getTimeout()).isEqualTo(5000L);
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onComplete(new AsyncEvent(asyncContext));
+    }
+    assertThat(completed).isTrue();
+  }
+
+  @Test
+  void callableWaitsBeforeItIsCalled() throws Exception {
+    Callable<?> delayed =
+        (Callable<?>) AsyncAssaults.delay((Callable<String>) () -> "hello", assault, 300);
+
+    long start = System.nanoTime();
+    assertThat(delayed.call()).isEqualTo("hello");
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+  }
+
+  @Test
+  void cancelledLatencyEndsWaitOfCallable() throws Exception {
+    Callable<?> delayed =
+        (Callable<?>) AsyncAssaults.delay((Callable<String>) () -> "hello", assault, 10_000);
+    CompletableFuture<Object> called = new CompletableFuture<>();
+    Thread waiting =
+        new Thread(
+            () -> {
+              try {
+                called.complete(delayed.call());
+              } catch (Exception e) {
+                called.completeExceptionally(e);
+              }
+            });
+
+    long start = System.nanoTime();
+    waiting.start();
+    long deadline = start + TimeUnit.SECONDS.toNanos(5);
+    while (executor.getParkedThreads() != 1 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    executor.cancel();
+
+    assertThat(called.get(5, TimeUnit.SECONDS)).isEqualTo("hello");
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+  }
+
+  private WebAsyncManager bindRequest() {
+    request.setAsyncSupported(true);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+    asyncManager.setAsyncWebRequest(
+        new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+    return asyncManager;
+  }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.codecentric.spring.boot.chaos.monkey.watcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import ch.qos.logback.classic.Level;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ChaosMonkeyRequestAssault;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.component.MicrometerChaosMetricsSink;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggleNameMapper;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggles;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringRepositoryAspectJPA;
+import de.codecentric.spring.boot.chaos.monkey.watcher.aspect.SpringServiceAspect;
+import de.codecentric.spring.boot.chaos.monkey.watcher.outgoing.ChaosMonkeyRestTemplateWatcher;
+import de.codecentric.spring.boot.chaos.monkey.watcher.outgoing.ChaosMonkeyWebClientWatcher;
+import de.codecentric.spring.boot.demo.chaos.monkey.repository.DemoRepository;
+import de.codecentric.spring.boot.demo.chaos.monkey.service.DemoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Random;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the bytes a watched call allocates on the calling thread. Watchers are called directly
+ * with stubs, so neither Spring AOP nor Mockito adds to the count.
+ *
+ * <p>Runs in its own JVM (see the surefire configuration), the inline mock maker instruments every
+ * class that was mocked by another test and that instrumentation allocates on each call.
+ */
+class WatcherAllocationTest {
+
+  private static final Logger Logger = LoggerFactory.getLogger(WatcherAllocationTest.class);
+
+  private static final int WARMUP_CALLS = 50_000;
+
+  private static final int MEASURED_CALLS = 10_000;
+
+  private static final int MEASURED_ROUNDS = 3;
+
+  private static final URI URL = URI.create("http://localhost:8080/hello");
+
+  private static final byte[] EMPTY_BODY = new byte[0];
+
+  private static com.sun.management.ThreadMXBean threadMXBean;
+
+  private static ch.qos.logback.classic.Logger chaosMonkeyLogger;
+
+  private static Level chaosMonkeyLogLevel;
+
+  private WatcherProperties watcherProperties;
+
+  private AssaultProperties assaultProperties;
+
+  private ChaosMonkeyProperties chaosMonkeyProperties;
+
+  private ChaosMonkeyRequestScope requestScope;
+
+  private MetricEventPublisher metricEventPublisher;
+
+  @BeforeAll
+  static void assumeAllocationsCanBeCounted() {
+    assumeTrue(
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+        "JVM does not count allocated bytes per thread");
+    threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @BeforeAll
+  static void logOnInfoLikeInProduction() {
+    // the watchers log every call on debug, which tests would otherwise measure
+    chaosMonkeyLogger =
+        (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("de.codecentric.spring.boot.chaos");
+    chaosMonkeyLogLevel = chaosMonkeyLogger.getLevel();
+    chaosMonkeyLogger.setLevel(Level.INFO);
+  }
+
+  @AfterAll
+  static void restoreLogLevel() {
+    chaosMonkeyLogger.setLevel(chaosMonkeyLogLevel);
+  }
+
+  @BeforeEach
+  void setUp() {
+    watcherProperties = new WatcherProperties();
+    watcherProperties.setService(true);
+    watcherProperties.setRepository(true);
+    watcherProperties.setRestTemplate(true);
+    watcherProperties.setWebClient(true);
+    assaultProperties = new AssaultProperties();
+    assaultProperties.setLevel(2);
+    chaosMonkeyProperties = new ChaosMonkeyProperties();
+    metricEventPublisher =
+        new MetricEventPublisher(new MicrometerChaosMetricsSink(new SimpleMeterRegistry()));
+    requestScope =
+        new ChaosMonkeyRequestScope(
+            new ChaosMonkeySettings(chaosMonkeyProperties, assaultProperties, watcherProperties),
+            Collections.singletonList(new NoOpAssault()),
+            Collections.emptyList(),
+            metricEventPublisher,
+            new DefaultChaosToggles(),
+            new DefaultChaosToggleNameMapper("chaos.monkey")) {
+          @Override
+          protected Random random() {
+            return NEVER_TROUBLE;
+          }
+        };
+  }
+
+  @Nested
+  class GivenChaosMonkeyIsDisabled {
+
+    @BeforeEach
+    void setUp() {
+      chaosMonkeyProperties.setEnabled(false);
+      requestScope.reloadConfig();
+    }
+
+    @Test
+    void serviceAspectDoesNotAllocate() throws Throwable {
+      assertEquals(0, allocatedBytesPerCall(serviceCall()));
+    }
+
+    @Test
+    void jpaRepositoryAspectDoesNotAllocate() throws Throwable {
+      assertEquals(0, allocatedBytesPerCall(jpaRepositoryCall()));
+    }
+
+    @Test
+    void restTemplateWatcherDoesNotAllocate() throws Throwable {
+      assertEquals(0, allocatedBytesPerCall(restTemplateCall()));
+    }
+
+    @Test
+    void webClientWatcherDoesNotAllocate() throws Throwable {
+      assertEquals(0, allocatedBytesPerCall(webClientCall()));
+    }
+  }
+
+  @Nested
+  class GivenCallIsNotSelected {
+
+    @BeforeEach
+    void setUp() {
+      chaosMonkeyProperties.setEnabled(true);
+      requestScope.reloadConfig();
+    }
+
+    @Test
+    void serviceAspectDoesNotAllocate() throws Throwable {
+      assertEquals(0, reportAllocatedBytesPerCall("SpringServiceAspect", serviceCall()));
+    }
+
+    @Test
+    void jpaRepositoryAspectDoesNotAllocate() throws Throwable {
+      assertEquals(
+          0, reportAllocatedBytesPerCall("SpringRepositoryAspectJPA", jpaRepositoryCall()));
+    }
+
+    @Test
+    void restTemplateWatcherDoesNotAllocate() throws Throwable {
+      assertEquals(
+          0, reportAllocatedBytesPerCall("ChaosMonkeyRestTemplateWatcher", restTemplateCall()));
+    }
+
+    @Test
+    void webClientWatcherAllocationIsReported() throws Throwable {
+      // marking the request as filtered copies the ClientRequest, so this is not free
+      reportAllocatedBytesPerCall("ChaosMonkeyWebClientWatcher", webClientCall());
+    }
+  }
+
+  private WatchedCall serviceCall() throws NoSuchMethodException {
+    SpringServiceAspect aspect =
+        new SpringServiceAspect(requestScope, metricEventPublisher, watcherProperties);
+    ProceedingJoinPoint pjp =
+        new StubJoinPoint(new DemoService(), DemoService.class.getMethod("sayHello"));
+    return () -> aspect.intercept(pjp);
+  }
+
+  private WatchedCall jpaRepositoryCall() throws NoSuchMethodException {
+    SpringRepositoryAspectJPA aspect =
+        new SpringRepositoryAspectJPA(requestScope, metricEventPublisher, watcherProperties);
+    ProceedingJoinPoint pjp =
+        new StubJoinPoint(null, DemoRepository.class.getMethod("dummyPublicSaveMethod"));
+    return () -> aspect.intercept(pjp);
+  }
+
+  private WatchedCall restTemplateCall() {
+    ChaosMonkeyRestTemplateWatcher watcher =
+        new ChaosMonkeyRestTemplateWatcher(requestScope, watcherProperties);
+    HttpRequest request = new StubHttpRequest();
+    ClientHttpResponse response = new OkResponse();
+    ClientHttpRequestExecution execution = (httpRequest, body) -> response;
+    return () -> watcher.intercept(request, EMPTY_BODY, execution);
+  }
+
+  private WatchedCall webClientCall() {
+    ChaosMonkeyWebClientWatcher watcher =
+        new ChaosMonkeyWebClientWatcher(requestScope, watcherProperties);
+    ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+    Mono<ClientResponse> response = Mono.just(ClientResponse.create(HttpStatus.OK).build());
+    ExchangeFunction exchangeFunction = clientRequest -> response;
+    return () -> watcher.filter(request, exchangeFunction);
+  }
+
+  private static long reportAllocatedBytesPerCall(String watcher, WatchedCall call)
+      throws Throwable {
+    long bytes = allocatedBytesPerCall(call);
+    Logger.info(
+        "{} allocates {} bytes per call when Chaos Monkey is enabled but the call is not selected",
+        watcher,
+        bytes);
+    return bytes;
+  }
+
+  /**
+   * Runs the call often enough to get it compiled, then returns the bytes allocated per call. Sizes
+   * of objects are multiples of 8 bytes, so less than a byte per call on average means the call
+   * itself does not allocate and only the measurement or a rare slow path did. The JIT may still
+   * recompile the call while it is measured, so the best of a few rounds counts.
+   */
+  private static long allocatedBytesPerCall(WatchedCall call) throws Throwable {
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      call.run();
+    }
+    long threadId = Thread.currentThread().getId();
+    long bytesPerCall = Long.MAX_VALUE;
+    for (int round = 0; round < MEASURED_ROUNDS && bytesPerCall > 0; round++) {
+      long calibrationStart = threadMXBean.getThreadAllocatedBytes(threadId);
+      long start = threadMXBean.getThreadAllocatedBytes(threadId);
+      long measurementCost = start - calibrationStart;
+      for (int i = 0; i < MEASURED_CALLS; i++) {
+        call.run();
+      }
+      long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - start - measurementCost;
+      bytesPerCall = Math.min(bytesPerCall, Math.max(0, allocated) / MEASURED_CALLS);
+    }
+    return bytesPerCall;
+  }
+
+  @FunctionalInterface
+  private interface WatchedCall {
+
+    void run() throws Throwable;
+  }
+
+  /** Never selects a call at level 2, so the whole path up to the trouble check is measured. */
+  private static final Random NEVER_TROUBLE =
+      new Random() {
+        @Override
+        public int nextInt(int bound) {
+          return 0;
+        }
+      };
+
+  private static class NoOpAssault implements ChaosMonkeyRequestAssault {
+
+    @Override
+    public boolean isActive() {
+      return true;
+    }
+
+    @Override
+    public void attack() {}
+  }
+
+  private static class StubJoinPoint implements ProceedingJoinPoint {
+
+    private final Object target;
+
+    private final MethodSignature signature;
+
+    private StubJoinPoint(Object target, Method method) {
+      this.target = target;
+      this.signature = new StubMethodSignature(method);
+    }
+
+    @Override
+    public Object proceed() {
+      return null;
+    }
+
+    @Override
+    public Object proceed(Object[] args) {
+      return null;
+    }
+
+    @Override
+    public Signature getSignature() {
+      return signature;
+    }
+
+    @Override
+    public String toShortString() {
+      return "execution(" + signature.toShortString() + ")";
+    }
+
+    @Override
+    public String toLongString() {
+      return toShortString();
+    }
+
+    @Override
+    public Object getThis() {
+      return target;
+    }
+
+    @Override
+    public Object getTarget() {
+      return target;
+    }
+
+    @Override
+    public Object[] getArgs() {
+      return new Object[0];
+    }
+
+    @Override
+    public SourceLocation getSourceLocation() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getKind() {
+      return METHOD_EXECUTION;
+    }
+
+    @Override
+    public StaticPart getStaticPart() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set$AroundClosure(AroundClosure arc) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class StubMethodSignature implements MethodSignature {
+
+    private final Method method;
+
+    private StubMethodSignature(Method method) {
+      this.method = method;
+    }
+
+    @Override
+    public Class getReturnType() {
+      return method.getReturnType();
+    }
+
+    @Override
+    public Method getMethod() {
+      return method;
+    }
+
+    @Override
+    public Class[] getParameterTypes() {
+      return method.getParameterTypes();
+    }
+
+    @Override
+    public String[] getParameterNames() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Class[] getExceptionTypes() {
+      return method.getExceptionTypes();
+    }
+
+    @Override
+    public String toShortString() {
+      return method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()";
+    }
+
+    @Override
+    public String toLongString() {
+      return method.toString();
+    }
+
+    @Override
+    public String getName() {
+      return method.getName();
+    }
+
+    @Override
+    public int getModifiers() {
+      return method.getModifiers();
+    }
+
+    @Override
+    public Class getDeclaringType() {
+      return method.getDeclaringClass();
+    }
+
+    @Override
+    public String getDeclaringTypeName() {
+      return method.getDeclaringClass().getName();
+    }
+  }
+
+  private static class StubHttpRequest implements HttpRequest {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    @Override
+    public String getMethodValue() {
+      return HttpMethod.GET.name();
+    }
+
+    @Override
+    public URI getURI() {
+      return URL;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+
+  private static class OkResponse extends AbstractClientHttpResponse {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    @Override
+    public int getRawStatusCode() {
+      return HttpStatus.OK.value();
+    }
+
+    @Override
+    public String getStatusText() {
+      return HttpStatus.OK.getReasonPhrase();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(EMPTY_BODY);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
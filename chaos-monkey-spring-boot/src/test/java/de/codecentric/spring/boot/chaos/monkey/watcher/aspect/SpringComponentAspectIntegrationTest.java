@@ -19,6 +19,7 @@ package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
@@ -131,7 +132,9 @@ class SpringComponentAspectIntegrationTest {
 
     @Bean
     public ChaosMonkeyRequestScope chaosMonkeyRequestScopeMock() {
-      return mock(ChaosMonkeyRequestScope.class);
+      ChaosMonkeyRequestScope chaosMonkeyRequestScope = mock(ChaosMonkeyRequestScope.class);
+      when(chaosMonkeyRequestScope.isEnabled()).thenReturn(true);
+      return chaosMonkeyRequestScope;
     }
 
     @Bean
@@ -16,6 +16,7 @@
 
 package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
 
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -54,6 +55,7 @@ class SpringRepositoryAspectJDBCTest {
   @Test
   void chaosMonkeyIsCalledWhenEnabledInConfig() {
     watcherProperties.setRepository(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
 
     addRelevantAspect();
 
@@ -73,6 +75,18 @@ class SpringRepositoryAspectJDBCTest {
     verifyDependenciesCalledXTimes(0);
   }
 
+  @Test
+  void chaosMonkeyIsNotCalledWhenChaosMonkeyIsDisabled() {
+    watcherProperties.setRepository(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(false);
+
+    addRelevantAspect();
+
+    callTargetMethod();
+
+    verifyDependenciesCalledXTimes(0);
+  }
+
   @Test
   void chaosMonkeyIsNotCalledByAspectsWithUnrelatedPointcuts() {
     watcherProperties.setService(true);
@@ -16,6 +16,7 @@
 
 package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
 
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -55,6 +56,7 @@ class SpringRepositoryAspectJPATest {
   @Test
   void chaosMonkeyIsCalledWhenEnabledInConfig() {
     watcherProperties.setRepository(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
 
     addRelevantAspect();
 
@@ -74,6 +76,18 @@ class SpringRepositoryAspectJPATest {
     verifyDependenciesCalledXTimes(0);
   }
 
+  @Test
+  void chaosMonkeyIsNotCalledWhenChaosMonkeyIsDisabled() {
+    watcherProperties.setRepository(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(false);
+
+    addRelevantAspect();
+
+    callTargetMethod();
+
+    verifyDependenciesCalledXTimes(0);
+  }
+
   @Test
   void chaosMonkeyIsNotCalledByAspectsWithUnrelatedPointcuts() {
     watcherProperties.setService(true);
@@ -16,21 +16,43 @@
 
 package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
 import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
 import de.codecentric.spring.boot.chaos.monkey.component.MetricType;
 import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
 import de.codecentric.spring.boot.demo.chaos.monkey.service.DemoService;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /** @author Benjamin Wilms */
 @ExtendWith(MockitoExtension.class)
@@ -54,6 +76,7 @@ class SpringServiceAspectTest {
   @Test
   void chaosMonkeyIsCalledWhenEnabledInConfig() {
     watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
 
     addRelevantAspect();
 
@@ -73,6 +96,121 @@ class SpringServiceAspectTest {
     verifyDependenciesCalledXTimes(0);
   }
 
+  @Test
+  void chaosMonkeyIsNotCalledWhenChaosMonkeyIsDisabled() {
+    watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(false);
+
+    addRelevantAspect();
+
+    callTargetMethod();
+
+    verifyDependenciesCalledXTimes(0);
+  }
+
+  @Test
+  void signatureIsOnlyBuiltOncePerMethod() {
+    watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
+
+    addRelevantAspect();
+
+    callTargetMethod();
+    callTargetMethod();
+
+    ArgumentCaptor<String> signatures = ArgumentCaptor.forClass(String.class);
+    verify(chaosMonkeyRequestScopeMock, times(2))
+        .callChaosMonkey(ArgumentMatchers.eq(ChaosTarget.SERVICE), signatures.capture());
+    assertSame(signatures.getAllValues().get(0), signatures.getAllValues().get(1));
+  }
+
+  @Test
+  void monoIsAttackedWhenSubscribed() throws Exception {
+    watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
+    LatencyAssault latencyAssault = mock(LatencyAssault.class);
+    given(latencyAssault.prepareAttack(ChaosTarget.SERVICE, simpleName + "Reactive"))
+        .willReturn(1000);
+    addRelevantAspect();
+
+    Mono<String> hello = factory.<DemoService>getProxy().sayHelloReactive();
+
+    verify(chaosMonkeyRequestScopeMock, never()).selectAssault(any(), anyString());
+    given(chaosMonkeyRequestScopeMock.selectAssault(ChaosTarget.SERVICE, simpleName + "Reactive"))
+        .willReturn(latencyAssault);
+    CompletableFuture<String> emittingThread = new CompletableFuture<>();
+    long start = System.nanoTime();
+    hello.subscribe(value -> emittingThread.complete(Thread.currentThread().getName()));
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+    assertThat(emittingThread.get(5, TimeUnit.SECONDS)).startsWith("parallel-");
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(1000));
+    verify(chaosMonkeyRequestScopeMock, never()).callChaosMonkey(any(), anyString());
+    verify(latencyAssault, never()).attack();
+  }
+
+  @Test
+  void fluxSignalsExceptionWhenSubscribed() {
+    watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
+    ExceptionAssault exceptionAssault = mock(ExceptionAssault.class);
+    willThrow(new RuntimeException("Chaos Monkey - RuntimeException"))
+        .given(exceptionAssault)
+        .attack();
+    given(chaosMonkeyRequestScopeMock.selectAssault(ChaosTarget.SERVICE, simpleName + "Twice"))
+        .willReturn(exceptionAssault);
+    addRelevantAspect();
+
+    Flux<String> hello = factory.<DemoService>getProxy().sayHelloTwice();
+
+    assertThatThrownBy(hello::blockLast).hasMessage("Chaos Monkey - RuntimeException");
+  }
+
+  @Test
+  void publisherIsUnchangedWhenNotAttacked() {
+    watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
+    addRelevantAspect();
+
+    Flux<String> hello = factory.<DemoService>getProxy().sayHelloTwice();
+
+    assertThat(hello.collectList().block())
+        .containsExactly("Hello from Service!", "Hello again from Service!");
+  }
+
+  @Test
+  void futureIsCompletedLaterWithoutBlockingCaller() throws Exception {
+    watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
+    LatencyAssault latencyAssault = mock(LatencyAssault.class);
+    given(latencyAssault.prepareAttack(ChaosTarget.SERVICE, simpleName + "Async")).willReturn(1000);
+    given(chaosMonkeyRequestScopeMock.selectAssault(ChaosTarget.SERVICE, simpleName + "Async"))
+        .willReturn(latencyAssault);
+    ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    willAnswer(
+            invocation ->
+                timer.schedule(
+                    invocation.<Runnable>getArgument(0),
+                    invocation.<Long>getArgument(1),
+                    TimeUnit.MILLISECONDS))
+        .given(latencyAssault)
+        .schedule(any(), anyLong());
+    addRelevantAspect();
+    DemoService proxy = factory.getProxy();
+
+    long start = System.nanoTime();
+    CompletableFuture<String> hello = proxy.sayHelloAsync();
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+    assertThat(hello).isNotDone();
+    assertThat(hello.get(5, TimeUnit.SECONDS)).isEqualTo("Hello from Service!");
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(1000));
+    verify(latencyAssault, never()).attack();
+    timer.shutdown();
+  }
+
   @Test
   void chaosMonkeyIsNotCalledByAspectsWithUnrelatedPointcuts() {
     watcherProperties.setService(true);
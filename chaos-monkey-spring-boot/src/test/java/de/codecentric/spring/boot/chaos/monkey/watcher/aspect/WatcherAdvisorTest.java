@@ -0,0 +1,157 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.aspect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.component.MetricEventPublisher;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.demo.chaos.monkey.component.DemoComponent;
+import de.codecentric.spring.boot.demo.chaos.monkey.service.DemoService;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.aop.support.AopUtils;
+
+@ExtendWith(MockitoExtension.class)
+class WatcherAdvisorTest {
+
+  private final WatcherProperties watcherProperties = new WatcherProperties();
+
+  private final AtomicInteger createdAspects = new AtomicInteger();
+
+  @Mock private ChaosMonkeyRequestScope chaosMonkeyRequestScopeMock;
+
+  @Mock private MetricEventPublisher metricsMock;
+
+  private final WatcherAdvisor advisor =
+      new WatcherAdvisor(
+          SpringServiceAspect.class,
+          () -> {
+            createdAspects.incrementAndGet();
+            return new SpringServiceAspect(
+                chaosMonkeyRequestScopeMock, metricsMock, watcherProperties);
+          },
+          watcherProperties,
+          WatcherProperties::isService,
+          true);
+
+  @Test
+  void advisesBeansOfDisabledWatcherByDefault() {
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isTrue();
+    assertThat(AopUtils.canApply(advisor, DemoComponent.class)).isFalse();
+  }
+
+  @Test
+  void doesNotAdviseBeansOfDisabledWatcherIfOnlyEnabledOnesAreProxied() {
+    watcherProperties.setProxyOnlyEnabled(true);
+
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isFalse();
+  }
+
+  @Test
+  void advisesBeansOfEnabledWatcherIfOnlyEnabledOnesAreProxied() {
+    watcherProperties.setProxyOnlyEnabled(true);
+    watcherProperties.setService(true);
+
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isTrue();
+    assertThat(AopUtils.canApply(advisor, DemoComponent.class)).isFalse();
+  }
+
+  @Test
+  void advisesBeansCreatedAfterWatcherWasEnabled() {
+    watcherProperties.setProxyOnlyEnabled(true);
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isFalse();
+
+    watcherProperties.setService(true);
+
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isTrue();
+  }
+
+  @Test
+  void advisedBeansStayAdvisedWhenWatcherIsDisabled() {
+    watcherProperties.setProxyOnlyEnabled(true);
+    watcherProperties.setService(true);
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isTrue();
+
+    watcherProperties.setService(false);
+
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isTrue();
+  }
+
+  @Test
+  void advisesBeansInIncludedPackages() {
+    watcherProperties.setService(true);
+    watcherProperties.setIncludePackages(
+        Collections.singletonList("de.codecentric.spring.boot.demo"));
+
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isTrue();
+  }
+
+  @Test
+  void doesNotAdviseBeansOutsideOfIncludedPackages() {
+    watcherProperties.setService(true);
+    // a prefix of the package name, but not a parent package
+    watcherProperties.setIncludePackages(
+        Collections.singletonList("de.codecentric.spring.boot.demo.chaos.monkey.serv"));
+
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isFalse();
+  }
+
+  @Test
+  void doesNotAdviseBeansInExcludedPackages() {
+    watcherProperties.setService(true);
+    watcherProperties.setIncludePackages(
+        Collections.singletonList("de.codecentric.spring.boot.demo"));
+    watcherProperties.setExcludePackages(
+        Collections.singletonList("de.codecentric.spring.boot.demo.chaos.monkey.service"));
+
+    assertThat(AopUtils.canApply(advisor, DemoService.class)).isFalse();
+  }
+
+  @Test
+  void createsAspectOnFirstWatchedCall() {
+    watcherProperties.setService(true);
+    given(chaosMonkeyRequestScopeMock.isEnabled()).willReturn(true);
+    ProxyFactory factory = new ProxyFactory(new DemoService());
+    factory.addAdvisor(ExposeInvocationInterceptor.ADVISOR);
+    factory.addAdvisor(advisor);
+    DemoService proxy = (DemoService) factory.getProxy();
+
+    assertThat(createdAspects).hasValue(0);
+
+    proxy.sayHello();
+    proxy.sayHello();
+
+    assertThat(createdAspects).hasValue(1);
+    verify(chaosMonkeyRequestScopeMock, times(2))
+        .callChaosMonkey(
+            ChaosTarget.SERVICE,
+            "de.codecentric.spring.boot.demo.chaos.monkey.service.DemoService.sayHello");
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.incoming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeyProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.ChaosMonkeySettings;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggleNameMapper;
+import de.codecentric.spring.boot.chaos.monkey.configuration.toggles.DefaultChaosToggles;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ChaosMonkeyWebFilterWatcherTest {
+
+  @Mock private ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+
+  @Mock private LatencyAssault latencyAssault;
+
+  @Mock private ExceptionAssault exceptionAssault;
+
+  private final WatcherProperties watcherProperties = new WatcherProperties();
+
+  // compiles the snapshots from the watcher properties, the mocked scope hands them out
+  private final ChaosMonkeyRequestScope settingsScope =
+      new ChaosMonkeyRequestScope(
+          new ChaosMonkeySettings(
+              new ChaosMonkeyProperties(), new AssaultProperties(), watcherProperties),
+          Collections.emptyList(),
+          Collections.emptyList(),
+          null,
+          new DefaultChaosToggles(),
+          new DefaultChaosToggleNameMapper("chaos.monkey"));
+
+  private final AtomicBoolean handled = new AtomicBoolean();
+
+  private final WebFilterChain chain = exchange -> Mono.fromRunnable(() -> handled.set(true));
+
+  @BeforeEach
+  void setUp() {
+    watcherProperties.setWebFilter(true);
+    // the disabled watcher is skipped before the scope is asked
+    lenient().when(chaosMonkeyRequestScope.isEnabled()).thenReturn(true);
+    lenient()
+        .when(chaosMonkeyRequestScope.getSnapshot())
+        .thenAnswer(invocation -> settingsScope.getSnapshot());
+  }
+
+  @Test
+  void latencyDelaysHandlerWithoutBlockingSubscriber() throws Exception {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_FILTER, "/hello"))
+        .willReturn(latencyAssault);
+    given(latencyAssault.prepareAttack(ChaosTarget.WEB_FILTER, "/hello")).willReturn(1000);
+    CompletableFuture<String> completingThread = new CompletableFuture<>();
+    Mono<Void> result = watcher().filter(exchange("/hello"), chain);
+
+    long start = System.nanoTime();
+    result.subscribe(
+        null,
+        completingThread::completeExceptionally,
+        () -> completingThread.complete(Thread.currentThread().getName()));
+    long subscribed = System.nanoTime();
+
+    assertThat(Duration.ofNanos(subscribed - start)).isLessThan(Duration.ofMillis(500));
+    assertThat(completingThread.get(5, TimeUnit.SECONDS)).startsWith("parallel-");
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(1000));
+    assertThat(handled).isTrue();
+  }
+
+  @Test
+  void exceptionIsSignalledInsteadOfHandlingRequest() {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_FILTER, "/hello"))
+        .willReturn(exceptionAssault);
+    willThrow(new RuntimeException("Chaos Monkey - RuntimeException"))
+        .given(exceptionAssault)
+        .attack();
+
+    Mono<Void> result = watcher().filter(exchange("/hello"), chain);
+
+    assertThatThrownBy(result::block).hasMessage("Chaos Monkey - RuntimeException");
+    assertThat(handled).isFalse();
+  }
+
+  @Test
+  void requestsOutsideOfWatchedPathsAreNotAttacked() {
+    watcherProperties.setWebFilterPaths(Collections.singletonList("/api/**"));
+
+    watcher().filter(exchange("/hello"), chain).block();
+
+    verify(chaosMonkeyRequestScope, never()).selectAssault(any(), anyString());
+    assertThat(handled).isTrue();
+  }
+
+  @Test
+  void requestsMatchingWatchedPathsAreAttacked() {
+    watcherProperties.setWebFilterPaths(Collections.singletonList("/api/{id}"));
+
+    watcher().filter(exchange("/api/42"), chain).block();
+
+    verify(chaosMonkeyRequestScope).selectAssault(ChaosTarget.WEB_FILTER, "/api/42");
+    assertThat(handled).isTrue();
+  }
+
+  @Test
+  void watchedPathsReloadedAfterCreationAreUsed() {
+    ChaosMonkeyWebFilterWatcher watcher = watcher();
+    watcher.filter(exchange("/hello"), chain).block();
+
+    watcherProperties.setWebFilterPaths(Collections.singletonList("/api/**"));
+    settingsScope.reloadConfig();
+    watcher.filter(exchange("/hello"), chain).block();
+
+    verify(chaosMonkeyRequestScope, times(1)).selectAssault(ChaosTarget.WEB_FILTER, "/hello");
+  }
+
+  @Test
+  void invalidWatchedPathsAreIgnored() {
+    watcherProperties.setWebFilterPaths(Arrays.asList("/api/{id", "/api/**"));
+
+    watcher().filter(exchange("/api/42"), chain).block();
+
+    verify(chaosMonkeyRequestScope).selectAssault(ChaosTarget.WEB_FILTER, "/api/42");
+  }
+
+  @Test
+  void nothingIsAttackedWhenWatcherIsDisabled() {
+    watcherProperties.setWebFilter(false);
+
+    watcher().filter(exchange("/hello"), chain).block();
+
+    verify(chaosMonkeyRequestScope, never()).selectAssault(any(), anyString());
+    assertThat(handled).isTrue();
+  }
+
+  private ChaosMonkeyWebFilterWatcher watcher() {
+    return new ChaosMonkeyWebFilterWatcher(chaosMonkeyRequestScope, watcherProperties);
+  }
+
+  private static MockServerWebExchange exchange(String path) {
+    return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+  }
+}
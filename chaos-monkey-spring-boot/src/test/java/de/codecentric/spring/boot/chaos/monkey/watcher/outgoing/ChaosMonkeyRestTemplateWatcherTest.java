@@ -0,0 +1,279 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.outgoing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.BandwidthAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionFactory;
+import de.codecentric.spring.boot.chaos.monkey.assaults.HangAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog;
+import de.codecentric.spring.boot.chaos.monkey.assaults.TokenBucket;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultException;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFault;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFaultType;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import java.io.ByteArrayInputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.util.StreamUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ChaosMonkeyRestTemplateWatcherTest {
+
+  private static final String URL = "http://localhost/hello";
+
+  private static final byte[] BODY = new byte[0];
+
+  @Mock private ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+
+  @Mock private ChaosMonkeySnapshot snapshot;
+
+  @Mock private ExceptionAssault exceptionAssault;
+
+  @Mock private BandwidthAssault bandwidthAssault;
+
+  @Mock private HangAssault hangAssault;
+
+  @Mock private ClientHttpRequestExecution execution;
+
+  @Mock private ClientHttpResponse response;
+
+  private final MockClientHttpRequest request =
+      new MockClientHttpRequest(HttpMethod.GET, URI.create(URL));
+
+  private final WatcherProperties watcherProperties = new WatcherProperties();
+
+  private ChaosMonkeyRestTemplateWatcher watcher;
+
+  @BeforeEach
+  void setUp() {
+    watcherProperties.setRestTemplate(true);
+    given(chaosMonkeyRequestScope.isEnabled()).willReturn(true);
+    watcher = new ChaosMonkeyRestTemplateWatcher(chaosMonkeyRequestScope, watcherProperties);
+  }
+
+  @Test
+  void exceptionAssaultDiscardsAndClosesResponse() throws Exception {
+    givenExceptionAssault();
+    given(execution.execute(request, BODY)).willReturn(response);
+
+    ClientHttpResponse result = watcher.intercept(request, BODY, execution);
+
+    assertThat(result.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    verify(response).close();
+  }
+
+  @Test
+  void preFlightExceptionAssaultDoesNotSendRequest() throws Exception {
+    watcherProperties.setRestTemplatePreFlight(true);
+    givenExceptionAssault();
+
+    ClientHttpResponse result = watcher.intercept(request, BODY, execution);
+
+    assertThat(result.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    verifyNoInteractions(execution);
+  }
+
+  @Test
+  void preFlightAttacksBeforeSendingRequest() throws Exception {
+    watcherProperties.setRestTemplatePreFlight(true);
+    given(execution.execute(request, BODY)).willReturn(response);
+
+    assertThat(watcher.intercept(request, BODY, execution)).isSameAs(response);
+
+    InOrder inOrder = inOrder(chaosMonkeyRequestScope, execution);
+    inOrder.verify(chaosMonkeyRequestScope).selectAssault(ChaosTarget.REST_TEMPLATE, URL);
+    inOrder.verify(execution).execute(request, BODY);
+  }
+
+  @Test
+  void configuredStatusIsReturnedWithRetryAfter() throws Exception {
+    watcherProperties.setRestTemplatePreFlight(true);
+    OutgoingFault serviceUnavailable = new OutgoingFault();
+    serviceUnavailable.setStatus(503);
+    serviceUnavailable.setRetryAfter(2);
+    givenExceptionAssault(serviceUnavailable);
+
+    ClientHttpResponse result = watcher.intercept(request, BODY, execution);
+
+    assertThat(result.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    assertThat(StreamUtils.copyToString(result.getBody(), StandardCharsets.UTF_8))
+        .isEqualTo(OutgoingFaultCatalog.ERROR_BODY);
+  }
+
+  @Test
+  void connectionResetFailsRequest() {
+    watcherProperties.setRestTemplatePreFlight(true);
+    OutgoingFault connectionReset = new OutgoingFault();
+    connectionReset.setType(OutgoingFaultType.CONNECTION_RESET);
+    givenExceptionAssault(connectionReset);
+
+    assertThatThrownBy(() -> watcher.intercept(request, BODY, execution))
+        .isInstanceOf(SocketException.class);
+    verifyNoInteractions(execution);
+  }
+
+  @Test
+  void readTimeoutFailsRequestAfterTimeout() {
+    watcherProperties.setRestTemplatePreFlight(true);
+    OutgoingFault readTimeout = new OutgoingFault();
+    readTimeout.setType(OutgoingFaultType.READ_TIMEOUT);
+    readTimeout.setTimeout(300);
+    givenExceptionAssault(readTimeout);
+
+    long start = System.nanoTime();
+    assertThatThrownBy(() -> watcher.intercept(request, BODY, execution))
+        .isInstanceOf(SocketTimeoutException.class);
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+  }
+
+  @Test
+  void readTimeoutFailsRequestRightAwayByDefault() {
+    watcherProperties.setRestTemplatePreFlight(true);
+    OutgoingFault readTimeout = new OutgoingFault();
+    readTimeout.setType(OutgoingFaultType.READ_TIMEOUT);
+    givenExceptionAssault(readTimeout);
+
+    long start = System.nanoTime();
+    assertThatThrownBy(() -> watcher.intercept(request, BODY, execution))
+        .isInstanceOf(SocketTimeoutException.class);
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    verifyNoInteractions(execution);
+  }
+
+  @Test
+  void interruptedReadTimeoutFailsRequestAndKeepsInterrupt() {
+    watcherProperties.setRestTemplatePreFlight(true);
+    OutgoingFault readTimeout = new OutgoingFault();
+    readTimeout.setType(OutgoingFaultType.READ_TIMEOUT);
+    readTimeout.setTimeout(60_000);
+    givenExceptionAssault(readTimeout);
+
+    Thread.currentThread().interrupt();
+    try {
+      assertThatThrownBy(() -> watcher.intercept(request, BODY, execution))
+          .isInstanceOf(InterruptedIOException.class);
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void otherExceptionsArePropagatedWithoutSendingRequest() {
+    watcherProperties.setRestTemplatePreFlight(true);
+    given(chaosMonkeyRequestScope.getSnapshot()).willReturn(snapshot);
+    given(snapshot.getExceptionFactory()).willReturn(ExceptionFactory.of(new AssaultException()));
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.REST_TEMPLATE, URL))
+        .willReturn(exceptionAssault);
+    willThrow(new IllegalStateException("boom"))
+        .given(exceptionAssault)
+        .attack(ChaosTarget.REST_TEMPLATE, URL);
+
+    assertThatThrownBy(() -> watcher.intercept(request, BODY, execution))
+        .isInstanceOf(IllegalStateException.class);
+    verifyNoInteractions(execution);
+  }
+
+  @Test
+  void bandwidthAssaultThrottlesResponseBody() throws Exception {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.REST_TEMPLATE, URL))
+        .willReturn(bandwidthAssault);
+    given(bandwidthAssault.prepareAttack()).willReturn(new TokenBucket(20_000));
+    given(execution.execute(request, BODY)).willReturn(response);
+    given(response.getBody()).willReturn(new ByteArrayInputStream(new byte[10_000]));
+
+    long start = System.nanoTime();
+    ClientHttpResponse result = watcher.intercept(request, BODY, execution);
+
+    assertThat(StreamUtils.copyToByteArray(result.getBody())).hasSize(10_000);
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(400));
+    verify(bandwidthAssault, never()).attack(any(), any());
+  }
+
+  @Test
+  void hangAssaultHoldsResponseUntilTimeout() throws Exception {
+    watcherProperties.setRestTemplatePreFlight(true);
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.REST_TEMPLATE, URL))
+        .willReturn(hangAssault);
+    CompletableFuture<Void> hang = new CompletableFuture<>();
+    given(hangAssault.prepareAttack()).willReturn(hang);
+    given(execution.execute(request, BODY)).willReturn(response);
+    CompletableFuture<Throwable> failure =
+        CompletableFuture.supplyAsync(
+            () -> catchThrowable(() -> watcher.intercept(request, BODY, execution)));
+
+    Thread.sleep(100);
+    assertThat(failure).isNotDone();
+    verify(response, never()).close();
+
+    hang.complete(null);
+
+    assertThat(failure.get(5, TimeUnit.SECONDS)).isInstanceOf(SocketTimeoutException.class);
+    verify(response).close();
+  }
+
+  private void givenExceptionAssault(OutgoingFault... outgoingFaults) {
+    ExceptionFactory exceptionFactory = ExceptionFactory.of(new AssaultException());
+    given(chaosMonkeyRequestScope.getSnapshot()).willReturn(snapshot);
+    given(snapshot.getExceptionFactory()).willReturn(exceptionFactory);
+    given(snapshot.getOutgoingFaults())
+        .willReturn(OutgoingFaultCatalog.of(Arrays.asList(outgoingFaults)));
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.REST_TEMPLATE, URL))
+        .willReturn(exceptionAssault);
+    willThrow(exceptionFactory.create())
+        .given(exceptionAssault)
+        .attack(ChaosTarget.REST_TEMPLATE, URL);
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package de.codecentric.spring.boot.chaos.monkey.watcher.outgoing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import de.codecentric.spring.boot.chaos.monkey.assaults.BandwidthAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.ExceptionFactory;
+import de.codecentric.spring.boot.chaos.monkey.assaults.HangAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.LatencyAssault;
+import de.codecentric.spring.boot.chaos.monkey.assaults.OutgoingFaultCatalog;
+import de.codecentric.spring.boot.chaos.monkey.assaults.TokenBucket;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeyRequestScope;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosMonkeySnapshot;
+import de.codecentric.spring.boot.chaos.monkey.component.ChaosTarget;
+import de.codecentric.spring.boot.chaos.monkey.configuration.AssaultException;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFault;
+import de.codecentric.spring.boot.chaos.monkey.configuration.OutgoingFaultType;
+import de.codecentric.spring.boot.chaos.monkey.configuration.WatcherProperties;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ChaosMonkeyWebClientWatcherTest {
+
+  private static final String URL = "http://localhost/hello";
+
+  @Mock private ChaosMonkeyRequestScope chaosMonkeyRequestScope;
+
+  @Mock private LatencyAssault latencyAssault;
+
+  @Mock private ExceptionAssault exceptionAssault;
+
+  @Mock private ChaosMonkeySnapshot snapshot;
+
+  @Mock private BandwidthAssault bandwidthAssault;
+
+  @Mock private HangAssault hangAssault;
+
+  private final ClientRequest request =
+      ClientRequest.create(HttpMethod.GET, URI.create(URL)).build();
+
+  private final ExchangeFunction exchangeFunction =
+      clientRequest -> Mono.just(ClientResponse.create(HttpStatus.OK).build());
+
+  private ChaosMonkeyWebClientWatcher watcher;
+
+  @BeforeEach
+  void setUp() {
+    WatcherProperties watcherProperties = new WatcherProperties();
+    watcherProperties.setWebClient(true);
+    // not needed by the tests of the throttled body alone
+    lenient().when(chaosMonkeyRequestScope.isEnabled()).thenReturn(true);
+    watcher = new ChaosMonkeyWebClientWatcher(chaosMonkeyRequestScope, watcherProperties);
+  }
+
+  @Test
+  void assaultIsChosenOnSubscription() {
+    watcher.filter(request, exchangeFunction);
+
+    verify(chaosMonkeyRequestScope, never()).selectAssault(any(), anyString());
+  }
+
+  @Test
+  void latencyDelaysResponseWithoutBlockingSubscriber() throws Exception {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(latencyAssault);
+    given(latencyAssault.prepareAttack(ChaosTarget.WEB_CLIENT, URL)).willReturn(300);
+    CompletableFuture<String> emittingThread = new CompletableFuture<>();
+
+    long start = System.nanoTime();
+    watcher
+        .filter(request, exchangeFunction)
+        .subscribe(response -> emittingThread.complete(Thread.currentThread().getName()));
+    long subscribed = System.nanoTime();
+
+    assertThat(Duration.ofNanos(subscribed - start)).isLessThan(Duration.ofMillis(200));
+    assertThat(emittingThread.get(5, TimeUnit.SECONDS)).startsWith("parallel-");
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+    verify(latencyAssault, never()).attack();
+  }
+
+  @Test
+  void configuredExceptionBecomesErrorResponse() {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(exceptionAssault);
+    willThrow(new RuntimeException("Chaos Monkey - RuntimeException"))
+        .given(exceptionAssault)
+        .attack();
+    givenConfiguredException();
+    givenOutgoingFaults();
+
+    ClientResponse response = watcher.filter(request, exchangeFunction).block();
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  @Test
+  void configuredStatusIsReturnedWithRetryAfter() {
+    givenAttackedWithConfiguredException();
+    OutgoingFault serviceUnavailable = new OutgoingFault();
+    serviceUnavailable.setStatus(503);
+    serviceUnavailable.setRetryAfter(2);
+    givenOutgoingFaults(serviceUnavailable);
+
+    ClientResponse response = watcher.filter(request, exchangeFunction).block();
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(response.headers().header(HttpHeaders.RETRY_AFTER)).containsExactly("2");
+    assertThat(response.bodyToMono(String.class).block())
+        .isEqualTo(OutgoingFaultCatalog.ERROR_BODY);
+  }
+
+  @Test
+  void connectionResetIsSignalled() {
+    givenAttackedWithConfiguredException();
+    OutgoingFault connectionReset = new OutgoingFault();
+    connectionReset.setType(OutgoingFaultType.CONNECTION_RESET);
+    givenOutgoingFaults(connectionReset);
+
+    Mono<ClientResponse> response = watcher.filter(request, exchangeFunction);
+
+    assertThatThrownBy(response::block)
+        .isInstanceOf(WebClientRequestException.class)
+        .hasCauseInstanceOf(SocketException.class);
+  }
+
+  @Test
+  void readTimeoutIsSignalledAfterTimeout() {
+    givenAttackedWithConfiguredException();
+    OutgoingFault readTimeout = new OutgoingFault();
+    readTimeout.setType(OutgoingFaultType.READ_TIMEOUT);
+    readTimeout.setTimeout(300);
+    givenOutgoingFaults(readTimeout);
+
+    long start = System.nanoTime();
+    Mono<ClientResponse> response = watcher.filter(request, exchangeFunction);
+
+    assertThatThrownBy(response::block)
+        .isInstanceOf(WebClientRequestException.class)
+        .hasCauseInstanceOf(SocketTimeoutException.class);
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(300));
+  }
+
+  @Test
+  void otherExceptionsAreSignalled() {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(exceptionAssault);
+    willThrow(new IllegalStateException("boom")).given(exceptionAssault).attack();
+    givenConfiguredException();
+
+    Mono<ClientResponse> response = watcher.filter(request, exchangeFunction);
+
+    assertThatThrownBy(response::block).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void stacklessExceptionBecomesErrorResponse() {
+    AssaultException assaultException = new AssaultException();
+    assaultException.setType("java.lang.IllegalStateException");
+    assaultException.setStackless(true);
+    ExceptionFactory exceptionFactory = ExceptionFactory.of(assaultException);
+    given(chaosMonkeyRequestScope.getSnapshot()).willReturn(snapshot);
+    given(snapshot.getExceptionFactory()).willReturn(exceptionFactory);
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(exceptionAssault);
+    willThrow(exceptionFactory.create()).given(exceptionAssault).attack();
+    givenOutgoingFaults();
+
+    ClientResponse response = watcher.filter(request, exchangeFunction).block();
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  @Test
+  void responseIsUnchangedWhenNotAttacked() {
+    ClientResponse response = watcher.filter(request, exchangeFunction).block();
+
+    assertThat(response.statusCode()).isEqualTo(HttpStatus.OK);
+  }
+
+  @Test
+  void bandwidthAssaultThrottlesResponseBody() {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(bandwidthAssault);
+    given(bandwidthAssault.prepareAttack()).willReturn(new TokenBucket(20_000));
+    ExchangeFunction largeBody =
+        clientRequest ->
+            Mono.just(ClientResponse.create(HttpStatus.OK).body(repeat('x', 10_000)).build());
+
+    long start = System.nanoTime();
+    String body = watcher.filter(request, largeBody).block().bodyToMono(String.class).block();
+
+    assertThat(body).hasSize(10_000);
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .isGreaterThanOrEqualTo(Duration.ofMillis(400));
+    verify(bandwidthAssault, never()).attack();
+  }
+
+  @Test
+  void throttlingReleasesSlicedBuffers() {
+    NettyDataBufferFactory bufferFactory =
+        new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+    DataBuffer buffer = bufferFactory.wrap(bufferFactory.getByteBufAllocator().buffer(3000));
+    buffer.write(new byte[3000]);
+
+    List<DataBuffer> chunks =
+        ChaosMonkeyWebClientWatcher.throttle(Flux.just(buffer), new TokenBucket(10_000))
+            .collectList()
+            .block();
+
+    assertThat(chunks).extracting(DataBuffer::readableByteCount).containsExactly(1000, 1000, 1000);
+    chunks.forEach(DataBufferUtils::release);
+    assertThat(((NettyDataBuffer) buffer).getNativeBuffer().refCnt()).isZero();
+  }
+
+  @Test
+  void hangAssaultFailsWithReadTimeoutWhenHangIsOver() throws Exception {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(hangAssault);
+    CompletableFuture<Void> hang = new CompletableFuture<>();
+    given(hangAssault.prepareAttack()).willReturn(hang);
+
+    CompletableFuture<ClientResponse> response =
+        watcher.filter(request, exchangeFunction).toFuture();
+
+    Thread.sleep(100);
+    assertThat(response).isNotDone();
+
+    hang.complete(null);
+
+    assertThatThrownBy(() -> response.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(WebClientRequestException.class)
+        .hasRootCauseInstanceOf(SocketTimeoutException.class);
+  }
+
+  @Test
+  void cancelledHangEndsHang() {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(hangAssault);
+    CompletableFuture<Void> hang = new CompletableFuture<>();
+    given(hangAssault.prepareAttack()).willReturn(hang);
+
+    Mono<ClientResponse> response =
+        watcher.filter(request, exchangeFunction).timeout(Duration.ofMillis(100));
+
+    assertThatThrownBy(response::block).hasCauseInstanceOf(TimeoutException.class);
+    assertThat(hang).isCancelled();
+  }
+
+  private static String repeat(char c, int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, c);
+    return new String(chars);
+  }
+
+  private void givenAttackedWithConfiguredException() {
+    given(chaosMonkeyRequestScope.selectAssault(ChaosTarget.WEB_CLIENT, URL))
+        .willReturn(exceptionAssault);
+    willThrow(new RuntimeException("Chaos Monkey - RuntimeException"))
+        .given(exceptionAssault)
+        .attack();
+    givenConfiguredException();
+  }
+
+  private void givenOutgoingFaults(OutgoingFault... outgoingFaults) {
+    given(snapshot.getOutgoingFaults())
+        .willReturn(OutgoingFaultCatalog.of(Arrays.asList(outgoingFaults)));
+  }
+
+  private void givenConfiguredException() {
+    given(chaosMonkeyRequestScope.getSnapshot()).willReturn(snapshot);
+    given(snapshot.getExceptionFactory()).willReturn(ExceptionFactory.of(new AssaultException()));
+  }
+}
@@ -16,7 +16,10 @@
 
 package de.codecentric.spring.boot.demo.chaos.monkey.service;
 
+import java.util.concurrent.CompletableFuture;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /** @author Benjamin Wilms */
 @Service
@@ -25,4 +28,16 @@ public class DemoService {
   public String sayHello() {
     return "Hello from Service!";
   }
+
+  public CompletableFuture<String> sayHelloAsync() {
+    return CompletableFuture.completedFuture(sayHello());
+  }
+
+  public Mono<String> sayHelloReactive() {
+    return Mono.fromSupplier(this::sayHello);
+  }
+
+  public Flux<String> sayHelloTwice() {
+    return Flux.just("Hello from Service!", "Hello again from Service!");
+  }
 }